@@ -19,7 +19,8 @@ public class CacheConfig {
                 "users",
                 "orders",
                 "reviews",
-                "compatibilityRules"
+                "compatibilityRules",
+                "pcComponentProducts"
         );
     }
 } 
\ No newline at end of file
@@ -0,0 +1,31 @@
+package ru.bek.compshp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Конфигурация пула потоков для вычислительных задач конфигуратора
+ * (подбор сборок, параллельный анализ и рекомендации)
+ */
+@Configuration
+public class ExecutorConfig {
+
+    public static final String CONFIGURATOR_EXECUTOR = "configuratorExecutor";
+
+    @Bean(name = CONFIGURATOR_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService configuratorExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "configurator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
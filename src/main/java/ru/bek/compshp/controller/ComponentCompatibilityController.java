@@ -4,8 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.bek.compshp.dto.CompatibilityAnalysisResult;
+import ru.bek.compshp.dto.CompatibilityBatchRequest;
+import ru.bek.compshp.dto.CompatibilityBatchResult;
 import ru.bek.compshp.dto.CompatibilityRuleDto;
 import ru.bek.compshp.dto.ProductDto;
+import ru.bek.compshp.dto.RuleAnalysisReport;
 import ru.bek.compshp.mapper.CompatibilityRuleMapper;
 import ru.bek.compshp.mapper.ProductMapper;
 import ru.bek.compshp.model.CompatibilityRule;
@@ -13,7 +16,9 @@ import ru.bek.compshp.model.Product;
 import ru.bek.compshp.model.enums.ComponentType;
 import ru.bek.compshp.service.ComponentCompatibilityService;
 import ru.bek.compshp.service.CompatibilityAnalysisService;
+import ru.bek.compshp.service.CompatibilityRuleAnalyzer;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,6 +29,7 @@ import java.util.stream.Collectors;
 public class ComponentCompatibilityController {
     private final ComponentCompatibilityService compatibilityService;
     private final CompatibilityAnalysisService analysisService;
+    private final CompatibilityRuleAnalyzer ruleAnalyzer;
     private final ProductMapper productMapper;
     private final CompatibilityRuleMapper ruleMapper;
 
@@ -40,13 +46,29 @@ public class ComponentCompatibilityController {
     public ResponseEntity<Boolean> checkConfigurationCompatibility(
             @RequestParam Long newComponentId,
             @RequestBody List<Long> existingComponentIds) {
-        Product newComponent = compatibilityService.getProductById(newComponentId);
+        List<Long> ids = new ArrayList<>(existingComponentIds);
+        ids.add(newComponentId);
+        Map<Long, Product> products = compatibilityService.getProductsByIds(ids);
+        
+        Product newComponent = products.get(newComponentId);
         List<Product> existingComponents = existingComponentIds.stream()
-                .map(compatibilityService::getProductById)
+                .map(products::get)
                 .toList();
         return ResponseEntity.ok(compatibilityService.checkConfigurationCompatibility(newComponent, existingComponents));
     }
 
+    /**
+     * Пакетная проверка совместимости: один набор товаров и/или несколько вариантов конфигураций.
+     * Все товары загружаются одним запросом, результат - матрица попарной совместимости.
+     * @param request ID товаров и варианты конфигураций
+     * @return вердикты по каждой конфигурации
+     */
+    @PostMapping("/check-batch")
+    public ResponseEntity<CompatibilityBatchResult> checkBatchCompatibility(
+            @RequestBody CompatibilityBatchRequest request) {
+        return ResponseEntity.ok(compatibilityService.checkBatchCompatibility(request));
+    }
+
     /**
      * Выполняет детальный анализ совместимости конфигурации
      * @param configId ID конфигурации
@@ -67,8 +89,9 @@ public class ComponentCompatibilityController {
     @PostMapping("/analyze-components")
     public ResponseEntity<CompatibilityAnalysisResult> analyzeComponents(
             @RequestBody List<Long> componentIds) {
+        Map<Long, Product> products = compatibilityService.getProductsByIds(componentIds);
         List<Product> components = componentIds.stream()
-                .map(compatibilityService::getProductById)
+                .map(products::get)
                 .collect(Collectors.toList());
         
         CompatibilityAnalysisResult result = analysisService.analyzeConfiguration(components);
@@ -128,6 +151,14 @@ public class ComponentCompatibilityController {
         return ResponseEntity.ok(ruleMapper.toDto(savedRule));
     }
 
+    /**
+     * Анализ всех активных правил: противоречия, дубликаты, избыточные и неприменимые правила
+     */
+    @GetMapping("/rules/analysis")
+    public ResponseEntity<RuleAnalysisReport> analyzeRules() {
+        return ResponseEntity.ok(ruleAnalyzer.analyzeAll());
+    }
+
     @GetMapping("/rules/{componentType}")
     public ResponseEntity<List<CompatibilityRuleDto>> getRulesForComponentType(
             @PathVariable ComponentType componentType) {
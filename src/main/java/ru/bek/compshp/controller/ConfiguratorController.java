@@ -2,24 +2,41 @@ package ru.bek.compshp.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.bek.compshp.dto.ConfigComponentDto;
+import ru.bek.compshp.dto.ConfigurationImportResult;
+import ru.bek.compshp.dto.ConfigurationSearchRequest;
+import ru.bek.compshp.dto.ConfigurationSimulationRequest;
+import ru.bek.compshp.dto.ConfigurationSimulationResult;
+import ru.bek.compshp.dto.ConfigurationSummaryDto;
+import ru.bek.compshp.dto.KeysetPage;
 import ru.bek.compshp.dto.PCConfigurationDto;
+import ru.bek.compshp.dto.PowerBudgetDto;
 import ru.bek.compshp.dto.ConfigurationWithComponentsRequest;
 import ru.bek.compshp.model.PCConfiguration;
 import ru.bek.compshp.model.Product;
 import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.model.enums.RoleName;
+import ru.bek.compshp.security.CustomUserDetails;
+import ru.bek.compshp.service.ConfigurationSummaryService;
+import ru.bek.compshp.service.ConfigurationTransferService;
 import ru.bek.compshp.service.ConfiguratorService;
 import ru.bek.compshp.service.ConfiguratorServiceFixed;
 import ru.bek.compshp.util.PeripheralTypeMapper;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,6 +53,8 @@ public class ConfiguratorController {
 
     private final ConfiguratorService configuratorService;
     private final ConfiguratorServiceFixed configuratorServiceFixed;
+    private final ConfigurationSummaryService configurationSummaryService;
+    private final ConfigurationTransferService configurationTransferService;
     private final PeripheralTypeMapper peripheralTypeMapper;
 
     @PostMapping
@@ -58,13 +77,41 @@ public class ConfiguratorController {
     }
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Получить все конфигурации пользователя")
-    public ResponseEntity<List<PCConfigurationDto>> getUserConfigurations(@PathVariable Long userId) {
-        List<PCConfiguration> configs = configuratorService.getUserConfigurations(userId);
-        List<PCConfigurationDto> response = configs.stream()
-                .map(this::mapToConfigurationDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Получить конфигурации пользователя (постранично, новые первыми)")
+    public ResponseEntity<KeysetPage<ConfigurationSummaryDto>> getUserConfigurations(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal CustomUserDetails caller) {
+        ConfigurationSearchRequest request = ConfigurationSearchRequest.builder()
+                .userId(userId)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+        restrictToVisible(request, caller);
+        return ResponseEntity.ok(configurationSummaryService.search(request));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Поиск конфигураций по фильтрам (цена, производительность, совместимость, полнота, публичность, категория, товар)")
+    public ResponseEntity<KeysetPage<ConfigurationSummaryDto>> searchConfigurations(
+            @ModelAttribute ConfigurationSearchRequest request,
+            @AuthenticationPrincipal CustomUserDetails caller) {
+        restrictToVisible(request, caller);
+        return ResponseEntity.ok(configurationSummaryService.search(request));
+    }
+
+    /**
+     * Закрытые конфигурации видны только владельцу и администратору: в остальных случаях
+     * поиск ограничивается публичными конфигурациями
+     */
+    private void restrictToVisible(ConfigurationSearchRequest request, CustomUserDetails caller) {
+        boolean admin = caller != null && caller.getAuthorities().stream()
+                .anyMatch(authority -> RoleName.ROLE_ADMIN.name().equals(authority.getAuthority()));
+        boolean own = caller != null && request.getUserId() != null && request.getUserId().equals(caller.getId());
+        if (!admin && !own) {
+            request.setIsPublic(true);
+        }
     }
     
     @PutMapping("/{configId}")
@@ -123,6 +170,20 @@ public class ConfiguratorController {
         return ResponseEntity.ok(configuratorService.calculatePowerRequirement(configId));
     }
 
+    @GetMapping("/{configId}/power-budget")
+    @Operation(summary = "Получить бюджет мощности: потребление, мощность и запас БП")
+    public ResponseEntity<PowerBudgetDto> getPowerBudget(@PathVariable @NotNull Long configId) {
+        return ResponseEntity.ok(configuratorService.getPowerBudget(configId));
+    }
+
+    @PostMapping("/{configId}/simulate")
+    @Operation(summary = "Смоделировать замену компонентов без сохранения")
+    public ResponseEntity<ConfigurationSimulationResult> simulateConfiguration(
+            @PathVariable @NotNull Long configId,
+            @RequestBody ConfigurationSimulationRequest request) {
+        return ResponseEntity.ok(configuratorService.simulateConfiguration(configId, request));
+    }
+
     @GetMapping("/{configId}/performance-score")
     @Operation(summary = "Получить оценку производительности конфигурации")
     public ResponseEntity<Double> getPerformanceScore(@PathVariable @NotNull Long configId) {
@@ -136,26 +197,22 @@ public class ConfiguratorController {
     }
 
     @GetMapping("/price-range")
-    @Operation(summary = "Получить конфигурации в диапазоне цен")
-    public ResponseEntity<List<PCConfigurationDto>> getConfigurationsByPriceRange(
+    @Operation(summary = "Получить конфигурации в диапазоне цен (постранично, дешевые первыми)")
+    public ResponseEntity<KeysetPage<ConfigurationSummaryDto>> getConfigurationsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<PCConfiguration> configs = configuratorService.getConfigurationsByPriceRange(minPrice, maxPrice);
-        List<PCConfigurationDto> response = configs.stream()
-                .map(this::mapToConfigurationDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(configurationSummaryService.getConfigurationsByPriceRange(minPrice, maxPrice, cursor, limit));
     }
 
     @GetMapping("/by-performance")
-    @Operation(summary = "Получить конфигурации по минимальной производительности")
-    public ResponseEntity<List<PCConfigurationDto>> getConfigurationsByPerformance(
-            @RequestParam Double minPerformance) {
-        List<PCConfiguration> configs = configuratorService.getConfigurationsByPerformance(minPerformance);
-        List<PCConfigurationDto> response = configs.stream()
-                .map(this::mapToConfigurationDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Получить конфигурации по минимальной производительности (постранично, производительные первыми)")
+    public ResponseEntity<KeysetPage<ConfigurationSummaryDto>> getConfigurationsByPerformance(
+            @RequestParam Double minPerformance,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(configurationSummaryService.getConfigurationsByPerformance(minPerformance, cursor, limit));
     }
     
     @GetMapping("/{configId}/recommendations")
@@ -177,10 +234,10 @@ public class ConfiguratorController {
         return ResponseEntity.ok(response);
     }
     
-    @GetMapping("/{configId}/export")
+    @GetMapping(value = "/{configId}/export", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Экспортировать конфигурацию")
     public ResponseEntity<String> exportConfiguration(@PathVariable @NotNull Long configId) {
-        return ResponseEntity.ok(configuratorService.exportConfiguration(configId));
+        return ResponseEntity.ok(configurationTransferService.exportConfiguration(configId));
     }
 
     @PostMapping("/import")
@@ -188,10 +245,30 @@ public class ConfiguratorController {
     public ResponseEntity<PCConfigurationDto> importConfiguration(
             @RequestParam @NotNull Long userId,
             @RequestBody @NotBlank String jsonConfig) {
-        PCConfiguration config = configuratorService.importConfiguration(userId, jsonConfig);
+        PCConfiguration config = configurationTransferService.importConfiguration(userId, jsonConfig);
         return ResponseEntity.ok(mapToConfigurationDto(config));
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Выгрузить конфигурации в NDJSON (все или одного пользователя)")
+    public ResponseEntity<StreamingResponseBody> exportConfigurations(
+            @RequestParam(required = false) Long userId) {
+        StreamingResponseBody body = out -> configurationTransferService.exportConfigurations(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping(value = "/import/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Загрузить конфигурации из NDJSON")
+    public ResponseEntity<ConfigurationImportResult> importConfigurations(
+            @RequestParam @NotNull Long userId,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(configurationTransferService.importConfigurations(userId, request.getInputStream()));
+    }
+
     @PostMapping("/{configId}/clone")
     @Operation(summary = "Клонировать конфигурацию")
     public ResponseEntity<PCConfigurationDto> cloneConfiguration(
@@ -201,6 +278,15 @@ public class ConfiguratorController {
         return ResponseEntity.ok(mapToConfigurationDto(config));
     }
 
+    @PostMapping("/{configId}/clone/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Скопировать шаблонную конфигурацию списку пользователей")
+    public ResponseEntity<List<Long>> cloneConfigurationToUsers(
+            @PathVariable @NotNull Long configId,
+            @RequestBody @NotNull List<Long> userIds) {
+        return ResponseEntity.ok(configuratorService.cloneConfigurationToUsers(configId, userIds));
+    }
+
     @GetMapping("/{configId}/availability")
     @Operation(summary = "Проверить наличие компонентов")
     public ResponseEntity<Boolean> checkComponentsAvailability(@PathVariable @NotNull Long configId) {
@@ -254,13 +340,11 @@ public class ConfiguratorController {
     }
 
     @GetMapping("/public")
-    @Operation(summary = "Получить публичные конфигурации")
-    public ResponseEntity<List<PCConfigurationDto>> getPublicConfigurations() {
-        List<PCConfiguration> configs = configuratorService.getPublicConfigurations();
-        List<PCConfigurationDto> response = configs.stream()
-                .map(this::mapToConfigurationDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Получить публичные конфигурации (постранично, новые первыми)")
+    public ResponseEntity<KeysetPage<ConfigurationSummaryDto>> getPublicConfigurations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(configurationSummaryService.getPublicConfigurations(cursor, limit));
     }
 
     @PostMapping("/{configId}/toggle-publication")
@@ -273,7 +357,7 @@ public class ConfiguratorController {
     private PCConfigurationDto mapToConfigurationDto(PCConfiguration config) {
         PCConfigurationDto dto = PCConfigurationDto.builder()
                 .id(config.getId())
-                .userId(config.getUser().getId())
+                .userId(config.getUser() != null ? config.getUser().getId() : null)
                 .name(config.getName())
                 .description(config.getDescription())
                 .category(config.getCategory())
@@ -9,12 +9,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.bek.compshp.dto.KeysetPage;
 import ru.bek.compshp.dto.ProductDto;
+import ru.bek.compshp.dto.ProductFacetRequest;
+import ru.bek.compshp.dto.ProductFacetResult;
 import ru.bek.compshp.mapper.ProductMapper;
 import ru.bek.compshp.model.Product;
 import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.service.ProductFeedService;
+import ru.bek.compshp.service.ProductFeedService.Scope;
 import ru.bek.compshp.service.ProductService;
 
 import java.util.List;
@@ -28,6 +37,7 @@ import java.util.stream.Collectors;
 public class ProductController {
     private final ProductService productService;
     private final ProductMapper productMapper;
+    private final ProductFeedService productFeedService;
 
     @PostMapping
     @Operation(summary = "Создать новый товар", description = "Создает новый товар в базе данных")
@@ -155,6 +165,57 @@ public class ProductController {
         return ResponseEntity.ok(productDtos);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Поиск товаров", description = "Полнотекстовый поиск активных товаров по названию, описанию, " +
+            "производителю и характеристикам с учетом опечаток; результат упорядочен по релевантности")
+    @ApiResponse(responseCode = "200", description = "Результаты поиска получены успешно")
+    public ResponseEntity<Page<ProductDto>> searchProducts(
+            @Parameter(description = "Строка поиска", required = true) @RequestParam String query,
+            @Parameter(description = "Тип компонента") @RequestParam(required = false) ComponentType componentType,
+            @Parameter(description = "Номер страницы") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "20") int size) {
+        log.debug("Поиск товаров: '{}', тип {}", query, componentType);
+        Page<ProductDto> result = productService.searchProducts(query, componentType, true, PageRequest.of(page, size))
+                .map(productMapper::toDto);
+        log.debug("Найдено товаров: {}", result.getTotalElements());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/specs")
+    @Operation(summary = "Поиск товаров по характеристикам", description = "Условия вида socket=AM5, cores>=8, " +
+            "memory_type IN (DDR4, DDR5) объединяются через AND")
+    @ApiResponse(responseCode = "200", description = "Список товаров получен успешно")
+    public ResponseEntity<List<ProductDto>> getProductsBySpecFilters(
+            @Parameter(description = "Условия на характеристики", required = true) @RequestParam("filter") List<String> filters,
+            @Parameter(description = "Только активные товары") @RequestParam(defaultValue = "true") boolean activeOnly) {
+        log.debug("Поиск товаров по характеристикам: {}", filters);
+        List<ProductDto> productDtos = productService.findBySpecFilters(filters, activeOnly).stream()
+                .map(productMapper::toDto)
+                .collect(Collectors.toList());
+        log.debug("Найдено товаров: {}", productDtos.size());
+        return ResponseEntity.ok(productDtos);
+    }
+
+    @PostMapping("/facets")
+    @Operation(summary = "Фасетный поиск товаров", description = "Отбирает товары по типу, категории, производителю, " +
+            "ценовому диапазону и характеристикам и возвращает количество товаров для каждого значения фасетов")
+    @ApiResponse(responseCode = "200", description = "Результаты фасетного поиска получены успешно")
+    public ResponseEntity<ProductFacetResult<ProductDto>> searchWithFacets(@RequestBody ProductFacetRequest request) {
+        log.debug("Фасетный поиск товаров: {}", request);
+        ProductFacetResult<Product> result = productService.searchWithFacets(request);
+        List<ProductDto> productDtos = result.getItems().stream()
+                .map(productMapper::toDto)
+                .collect(Collectors.toList());
+        log.debug("Найдено товаров: {}", result.getTotal());
+        return ResponseEntity.ok(ProductFacetResult.<ProductDto>builder()
+                .items(productDtos)
+                .total(result.getTotal())
+                .page(result.getPage())
+                .size(result.getSize())
+                .facets(result.getFacets())
+                .build());
+    }
+
     @GetMapping("/available")
     @Operation(summary = "Получить доступные товары", description = "Возвращает список товаров, имеющихся в наличии")
     @ApiResponse(responseCode = "200", description = "Список доступных товаров получен успешно")
@@ -240,15 +301,100 @@ public class ProductController {
 
     @GetMapping("/pc-components")
     @Operation(summary = "Получить компоненты для ПК", 
-               description = "Возвращает список товаров, которые являются компонентами для компьютера")
+               description = "Возвращает список товаров, которые являются компонентами для компьютера; " +
+                       "при указании page и size - одну страницу списка")
     @ApiResponse(responseCode = "200", description = "Список компонентов для ПК получен успешно")
-    public ResponseEntity<List<ProductDto>> getPcComponentProducts() {
-        log.debug("Получение компонентов для ПК");
-        List<Product> products = productService.getPcComponentProducts();
-        List<ProductDto> productDtos = products.stream()
-                .map(productMapper::toDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ProductDto>> getPcComponentProducts(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("Получение компонентов для ПК: page={}, size={}", page, size);
+        List<ProductDto> productDtos = page == null && size == null
+                ? productService.getPcComponentProducts()
+                : productService.getPcComponentProducts(page == null ? 0 : page, size);
         log.debug("Найдено компонентов для ПК: {}", productDtos.size());
         return ResponseEntity.ok(productDtos);
     }
-} 
\ No newline at end of file
+
+    // Постраничные и потоковые варианты списков
+
+    @GetMapping("/page")
+    @Operation(summary = "Получить страницу товаров", description = "Постраничная выборка всех товаров по курсору")
+    public ResponseEntity<KeysetPage<ProductDto>> getProductsPage(
+            @Parameter(description = "Курсор предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productFeedService.page(Scope.ALL, null, cursor, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить все товары", description = "Потоковая выгрузка всех товаров в NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        return ndjson(Scope.ALL, null);
+    }
+
+    @GetMapping("/available/page")
+    @Operation(summary = "Получить страницу доступных товаров", description = "Постраничная выборка товаров в наличии по курсору")
+    public ResponseEntity<KeysetPage<ProductDto>> getAvailableProductsPage(
+            @Parameter(description = "Курсор предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productFeedService.page(Scope.AVAILABLE, null, cursor, limit));
+    }
+
+    @GetMapping(value = "/available/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить доступные товары", description = "Потоковая выгрузка товаров в наличии в NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamAvailableProducts() {
+        return ndjson(Scope.AVAILABLE, null);
+    }
+
+    @GetMapping("/category/{categoryId}/page")
+    @Operation(summary = "Получить страницу товаров категории", description = "Постраничная выборка товаров категории по курсору")
+    public ResponseEntity<KeysetPage<ProductDto>> getProductsByCategoryPage(
+            @Parameter(description = "ID категории", required = true) @PathVariable Long categoryId,
+            @Parameter(description = "Курсор предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productFeedService.page(Scope.CATEGORY, categoryId, cursor, limit));
+    }
+
+    @GetMapping(value = "/category/{categoryId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить товары категории", description = "Потоковая выгрузка товаров категории в NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamProductsByCategory(
+            @Parameter(description = "ID категории", required = true) @PathVariable Long categoryId) {
+        return ndjson(Scope.CATEGORY, categoryId);
+    }
+
+    @GetMapping("/manufacturer/{manufacturerId}/page")
+    @Operation(summary = "Получить страницу товаров производителя", description = "Постраничная выборка товаров производителя по курсору")
+    public ResponseEntity<KeysetPage<ProductDto>> getProductsByManufacturerPage(
+            @Parameter(description = "ID производителя", required = true) @PathVariable Long manufacturerId,
+            @Parameter(description = "Курсор предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productFeedService.page(Scope.MANUFACTURER, manufacturerId, cursor, limit));
+    }
+
+    @GetMapping(value = "/manufacturer/{manufacturerId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить товары производителя", description = "Потоковая выгрузка товаров производителя в NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamProductsByManufacturer(
+            @Parameter(description = "ID производителя", required = true) @PathVariable Long manufacturerId) {
+        return ndjson(Scope.MANUFACTURER, manufacturerId);
+    }
+
+    @GetMapping("/pc-components/page")
+    @Operation(summary = "Получить страницу компонентов для ПК", description = "Постраничная выборка компонентов для ПК по курсору")
+    public ResponseEntity<KeysetPage<ProductDto>> getPcComponentProductsPage(
+            @Parameter(description = "Курсор предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productFeedService.page(Scope.PC_COMPONENTS, null, cursor, limit));
+    }
+
+    @GetMapping(value = "/pc-components/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить компоненты для ПК", description = "Потоковая выгрузка компонентов для ПК в NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamPcComponentProducts() {
+        return ndjson(Scope.PC_COMPONENTS, null);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(Scope scope, Long scopeId) {
+        StreamingResponseBody body = out -> productFeedService.stream(scope, scopeId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
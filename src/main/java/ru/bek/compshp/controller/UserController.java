@@ -133,8 +133,9 @@ public class UserController {
 
     // Конфигурации ПК
     @GetMapping("/configs")
-    public ResponseEntity<?> getUserConfigs() {
-        return userService.getUserConfigs();
+    public ResponseEntity<?> getUserConfigs(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        return userService.getUserConfigs(cursor, limit);
     }
 
     @PostMapping("/configs")
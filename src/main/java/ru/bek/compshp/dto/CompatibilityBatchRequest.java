@@ -0,0 +1,37 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запрос пакетной проверки совместимости.
+ * Можно передать один набор товаров (productIds) и/или несколько
+ * вариантов конфигураций (configurations) - все они проверяются за один запрос.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompatibilityBatchRequest {
+
+    /**
+     * ID товаров одной конфигурации
+     */
+    private List<Long> productIds;
+
+    /**
+     * Варианты конфигураций (каждая - список ID товаров)
+     */
+    @Builder.Default
+    private List<List<Long>> configurations = new ArrayList<>();
+
+    /**
+     * Нужно ли формировать текстовые причины несовместимости
+     */
+    private boolean includeReasons;
+}
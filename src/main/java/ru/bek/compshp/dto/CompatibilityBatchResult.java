@@ -0,0 +1,69 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат пакетной проверки совместимости
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompatibilityBatchResult {
+
+    /**
+     * Результаты по каждой конфигурации в порядке запроса
+     */
+    @Builder.Default
+    private List<ConfigurationVerdict> configurations = new ArrayList<>();
+
+    /**
+     * Результат проверки одной конфигурации
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ConfigurationVerdict {
+
+        /**
+         * ID товаров конфигурации (порядок совпадает со строками и столбцами матрицы)
+         */
+        private List<Long> productIds;
+
+        /**
+         * Совместимы ли все пары компонентов
+         */
+        private boolean compatible;
+
+        /**
+         * Матрица попарной совместимости: matrix[i][j] - совместимы ли товары i и j
+         */
+        private List<List<Boolean>> matrix;
+
+        /**
+         * Несовместимые пары компонентов
+         */
+        @Builder.Default
+        private List<PairVerdict> incompatiblePairs = new ArrayList<>();
+    }
+
+    /**
+     * Несовместимая пара компонентов
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PairVerdict {
+        private Long firstProductId;
+        private Long secondProductId;
+        private String reason;
+    }
+}
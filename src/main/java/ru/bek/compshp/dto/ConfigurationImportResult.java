@@ -0,0 +1,35 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат пакетного импорта конфигураций
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationImportResult {
+
+    /**
+     * Количество импортированных конфигураций
+     */
+    private int imported;
+
+    /**
+     * Количество пропущенных записей
+     */
+    private int failed;
+
+    /**
+     * Причины пропуска (первые записи)
+     */
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,52 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Параметры поиска конфигураций ПК.
+ * Все фильтры необязательны и объединяются через AND; результат выдается
+ * постранично по ключу в порядке {@link #sort}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationSearchRequest {
+
+    /**
+     * Порядок сортировки результатов.
+     * При равенстве значения поля сортировки порядок определяет ID конфигурации,
+     * поэтому страницы не пересекаются и не теряют строки.
+     */
+    public enum SortOrder {
+        NEWEST,
+        PRICE_ASC,
+        PERFORMANCE_DESC
+    }
+
+    private Long userId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Double minPerformance;
+    private Double maxPerformance;
+    private Boolean isCompatible;
+    private Boolean isComplete;
+    private Boolean isPublic;
+    private String category;
+
+    /**
+     * ID товара, который должен входить в конфигурацию
+     */
+    private Long productId;
+
+    @Builder.Default
+    private SortOrder sort = SortOrder.NEWEST;
+
+    private String cursor;
+    private Integer limit;
+}
@@ -0,0 +1,73 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запрос на моделирование изменений конфигурации ("что если").
+ * Каждый сценарий применяется к исходной конфигурации независимо от остальных;
+ * ничего не сохраняется.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationSimulationRequest {
+
+    /**
+     * Вид изменения
+     */
+    public enum SwapAction {
+        /**
+         * Добавить товар (тип не должен быть уже занят)
+         */
+        ADD,
+        /**
+         * Заменить компонент того же типа товаром (или добавить, если такого типа нет)
+         */
+        REPLACE,
+        /**
+         * Убрать товар из конфигурации
+         */
+        REMOVE
+    }
+
+    @Builder.Default
+    private List<Scenario> scenarios = new ArrayList<>();
+
+    /**
+     * Нужно ли формировать текстовые причины несовместимости
+     */
+    private boolean includeReasons;
+
+    /**
+     * Сценарий - набор изменений, применяемых последовательно
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scenario {
+        private String name;
+
+        @Builder.Default
+        private List<Swap> swaps = new ArrayList<>();
+    }
+
+    /**
+     * Одно изменение конфигурации
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Swap {
+        private SwapAction action;
+        private Long productId;
+    }
+}
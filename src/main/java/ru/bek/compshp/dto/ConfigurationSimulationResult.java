@@ -0,0 +1,77 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат моделирования изменений конфигурации
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationSimulationResult {
+
+    private Long configId;
+
+    /**
+     * Показатели исходной конфигурации
+     */
+    private Totals baseline;
+
+    /**
+     * Результаты по сценариям в порядке запроса
+     */
+    @Builder.Default
+    private List<ScenarioResult> scenarios = new ArrayList<>();
+
+    /**
+     * Показатели набора компонентов
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+        private List<Long> productIds;
+        private BigDecimal totalPrice;
+        private Double totalPerformance;
+        private Boolean isCompatible;
+        private Boolean isComplete;
+        private PowerBudgetDto power;
+    }
+
+    /**
+     * Результат одного сценария
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScenarioResult {
+        private String name;
+
+        /**
+         * Ошибка применения изменений (null, если сценарий применен);
+         * при ошибке показатели и разницы не заполняются
+         */
+        private String error;
+
+        private Totals totals;
+        private BigDecimal priceDelta;
+        private Double performanceDelta;
+        private Integer powerDrawDelta;
+
+        /**
+         * Несовместимые пары компонентов после изменений
+         */
+        @Builder.Default
+        private List<CompatibilityBatchResult.PairVerdict> incompatiblePairs = new ArrayList<>();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO сводки конфигурации ПК для списков
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationSummaryDto {
+    private Long id;
+    private Long userId;
+    private String name;
+    private String category;
+    private Boolean isPublic;
+    private Boolean isCompatible;
+    private BigDecimal totalPrice;
+    private Double totalPerformance;
+    private Integer powerDraw;
+    private List<ComponentType> componentTypes;
+    private Integer componentCount;
+    private String cpuName;
+    private String gpuName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
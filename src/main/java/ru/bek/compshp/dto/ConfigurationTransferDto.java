@@ -0,0 +1,46 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Переносимое представление конфигурации ПК (формат экспорта/импорта).
+ * Товары указываются по ID; название и тип сохраняются, чтобы найти товар
+ * в другом окружении, где ID могут отличаться.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationTransferDto {
+    private int version;
+    private String name;
+    private String description;
+    private String category;
+    private Boolean isPublic;
+    private BigDecimal totalPrice;
+    private Double totalPerformance;
+
+    @Builder.Default
+    private List<ComponentEntry> components = new ArrayList<>();
+
+    /**
+     * Компонент конфигурации
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ComponentEntry {
+        private Long productId;
+        private ComponentType componentType;
+        private String title;
+    }
+}
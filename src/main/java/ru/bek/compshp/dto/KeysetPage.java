@@ -0,0 +1,36 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Страница результатов постраничной выборки по ключу
+ * @param <T> тип элементов
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    /**
+     * Элементы страницы
+     */
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+
+    /**
+     * Курсор следующей страницы или null, если страница последняя
+     */
+    private String nextCursor;
+
+    /**
+     * Есть ли следующая страница
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,46 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Бюджет мощности конфигурации ПК
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PowerBudgetDto {
+
+    /**
+     * Суммарное потребление компонентов без БП, Вт
+     */
+    private Integer powerDraw;
+
+    /**
+     * Мощность БП, Вт (null - БП нет или мощность не указана)
+     */
+    private Integer psuWattage;
+
+    /**
+     * Запас мощности БП, Вт
+     */
+    private Integer headroom;
+
+    /**
+     * Нагрузка на БП, %
+     */
+    private Double loadPercent;
+
+    /**
+     * Запас мощности меньше настроенного минимума
+     */
+    private Boolean headroomBelowMargin;
+
+    /**
+     * Рекомендуемая мощность БП с учетом запаса, Вт
+     */
+    private Integer recommendedPsuWattage;
+}
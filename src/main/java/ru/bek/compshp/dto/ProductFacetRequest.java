@@ -0,0 +1,54 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Параметры фасетного поиска товаров.
+ * Значения внутри одного фильтра объединяются через OR, разные фильтры - через AND;
+ * пустой фильтр не ограничивает выборку.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetRequest {
+
+    @Builder.Default
+    private Set<ComponentType> componentTypes = new HashSet<>();
+
+    @Builder.Default
+    private Set<Long> categoryIds = new HashSet<>();
+
+    @Builder.Default
+    private Set<Long> manufacturerIds = new HashSet<>();
+
+    /**
+     * Ценовые диапазоны, например "5000-10000" или "100000+"
+     */
+    @Builder.Default
+    private Set<String> priceRanges = new HashSet<>();
+
+    /**
+     * Значения характеристик по ключам, например socket -> [AM5, LGA1700]
+     */
+    @Builder.Default
+    private Map<String, Set<String>> specs = new HashMap<>();
+
+    /**
+     * Только активные товары
+     */
+    @Builder.Default
+    private boolean activeOnly = true;
+
+    private Integer page;
+    private Integer size;
+}
@@ -0,0 +1,43 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат фасетного поиска: страница товаров и количество товаров по значениям фасетов
+ * @param <T> тип элементов
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResult<T> {
+
+    /**
+     * Товары страницы
+     */
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+
+    /**
+     * Количество всех подходящих товаров
+     */
+    private long total;
+
+    private int page;
+    private int size;
+
+    /**
+     * Фасет -> значение -> количество товаров. Фасеты: componentType, category (ID),
+     * manufacturer (ID), price (диапазон) и specs.{ключ характеристики}
+     */
+    @Builder.Default
+    private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+}
@@ -0,0 +1,70 @@
+package ru.bek.compshp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат анализа набора правил совместимости
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleAnalysisReport {
+
+    /**
+     * Количество проанализированных активных правил
+     */
+    private int ruleCount;
+
+    /**
+     * Количество групп правил с одинаковыми типами и характеристиками
+     */
+    private int groupCount;
+
+    /**
+     * Найденные проблемы
+     */
+    @Builder.Default
+    private List<RuleFinding> findings = new ArrayList<>();
+
+    /**
+     * Вид проблемы в наборе правил
+     */
+    public enum FindingType {
+        /**
+         * Правила не могут выполняться одновременно
+         */
+        CONTRADICTION,
+        /**
+         * Правила задают одно и то же условие
+         */
+        DUPLICATE,
+        /**
+         * Правило следует из другого правила и ничего не добавляет
+         */
+        REDUNDANT,
+        /**
+         * Правило никогда не применяется при проверке
+         */
+        UNREACHABLE
+    }
+
+    /**
+     * Проблема, затрагивающая одно или несколько правил
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleFinding {
+        private FindingType type;
+        private List<Long> ruleIds;
+        private String message;
+    }
+}
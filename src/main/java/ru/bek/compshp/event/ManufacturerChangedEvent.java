@@ -0,0 +1,18 @@
+package ru.bek.compshp.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Событие изменения или удаления производителя.
+ * Публикуется слушателем сущности {@link ru.bek.compshp.model.Manufacturer};
+ * нужно индексам, в которых хранится название производителя товара.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ManufacturerChangedEvent {
+
+    private final Long manufacturerId;
+}
@@ -0,0 +1,35 @@
+package ru.bek.compshp.event;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.model.Manufacturer;
+
+/**
+ * JPA-слушатель сущности производителя.
+ * Превращает изменения производителей в события приложения {@link ManufacturerChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ManufacturerEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    public void afterUpdate(Manufacturer manufacturer) {
+        publish(manufacturer);
+    }
+
+    @PostRemove
+    public void afterDelete(Manufacturer manufacturer) {
+        publish(manufacturer);
+    }
+
+    private void publish(Manufacturer manufacturer) {
+        if (manufacturer.getId() != null) {
+            eventPublisher.publishEvent(new ManufacturerChangedEvent(manufacturer.getId()));
+        }
+    }
+}
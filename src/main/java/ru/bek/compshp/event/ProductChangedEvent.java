@@ -0,0 +1,28 @@
+package ru.bek.compshp.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Событие изменения товара (создание, обновление или удаление).
+ * Публикуется слушателем сущности {@link ru.bek.compshp.model.Product}
+ * и используется для инкрементального обновления кэшей и индексов.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    /**
+     * Тип изменения товара
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long productId;
+    private final ChangeType changeType;
+}
@@ -0,0 +1,41 @@
+package ru.bek.compshp.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.model.Product;
+
+/**
+ * JPA-слушатель сущности товара.
+ * Превращает изменения товаров в события приложения {@link ProductChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void afterCreate(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void afterUpdate(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void afterDelete(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.DELETED);
+    }
+
+    private void publish(Product product, ProductChangedEvent.ChangeType changeType) {
+        if (product.getId() != null) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), changeType));
+        }
+    }
+}
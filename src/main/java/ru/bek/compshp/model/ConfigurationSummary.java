@@ -0,0 +1,79 @@
+package ru.bek.compshp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Денормализованная сводка конфигурации ПК для списков.
+ * Хранит итоги и ключевые компоненты, чтобы списки читались без загрузки компонентов.
+ * Обновляется при изменении конфигурации и ее состава.
+ */
+@Entity
+@Table(name = "configuration_summaries")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationSummary {
+
+    @Id
+    @Column(name = "config_id")
+    private Long configId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "category")
+    private String category;
+
+    @Column(name = "is_public", nullable = false)
+    private boolean isPublic;
+
+    @Column(name = "is_compatible", nullable = false)
+    private boolean isCompatible;
+
+    @Column(name = "total_price", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Column(name = "total_performance", nullable = false)
+    private double totalPerformance;
+
+    @Column(name = "power_draw", nullable = false)
+    private int powerDraw;
+
+    /**
+     * Битовая маска типов компонентов (см. {@link ru.bek.compshp.model.enums.ComponentType#getMask()})
+     */
+    @Column(name = "component_types", nullable = false)
+    private int componentTypes;
+
+    @Column(name = "component_count", nullable = false)
+    private int componentCount;
+
+    @Column(name = "cpu_product_id")
+    private Long cpuProductId;
+
+    @Column(name = "cpu_name")
+    private String cpuName;
+
+    @Column(name = "gpu_product_id")
+    private Long gpuProductId;
+
+    @Column(name = "gpu_name")
+    private String gpuName;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package ru.bek.compshp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.bek.compshp.event.ManufacturerEntityListener;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "manufacturers")
+@EntityListeners(ManufacturerEntityListener.class)
 @Getter
 @Setter
 @EqualsAndHashCode(exclude = "products")
@@ -54,6 +54,27 @@ public class PCConfiguration {
     @Column(name = "total_performance")
     private Double totalPerformance = 0.0;
 
+    /**
+     * Битовая маска типов компонентов (см. {@link ru.bek.compshp.model.enums.ComponentType#getMask()}).
+     * Поддерживается при изменении состава; по ней выбираются полные и неполные конфигурации.
+     */
+    @Builder.Default
+    @Column(name = "component_types", nullable = false)
+    private Integer componentTypes = 0;
+
+    /**
+     * Суммарное потребление компонентов без БП, Вт. Поддерживается при изменении состава
+     */
+    @Builder.Default
+    @Column(name = "power_draw", nullable = false)
+    private Integer powerDraw = 0;
+
+    /**
+     * Мощность блока питания конфигурации, Вт (null - БП нет или мощность не указана)
+     */
+    @Column(name = "psu_wattage")
+    private Integer psuWattage;
+
     @Builder.Default
     @OneToMany(mappedBy = "configuration", cascade = CascadeType.ALL, orphanRemoval = true)
     @ToString.Exclude
@@ -74,6 +95,13 @@ public class PCConfiguration {
         this.totalPerformance = totalPerformance;
     }
 
+    /**
+     * Запас мощности БП, Вт (null, если мощность БП неизвестна)
+     */
+    public Integer getPsuHeadroom() {
+        return psuWattage == null ? null : psuWattage - (powerDraw == null ? 0 : powerDraw);
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,323 @@
+package ru.bek.compshp.model;
+
+import java.util.*;
+
+/**
+ * Разобранное представление характеристик товара.
+ * Числовые значения, версии PCIe и списки извлекаются один раз при загрузке
+ * или изменении товара, чтобы горячие пути сравнивали примитивы, а не строки.
+ * Экземпляр неизменяем и может читаться из разных потоков.
+ */
+public final class ParsedSpecs {
+
+    public static final ParsedSpecs EMPTY = new ParsedSpecs(Map.of());
+
+    private final Map<String, SpecValue> values;
+
+    private ParsedSpecs(Map<String, SpecValue> values) {
+        this.values = values;
+    }
+
+    /**
+     * Разбирает характеристики товара
+     * @param specs исходные характеристики
+     * @return разобранное представление
+     */
+    public static ParsedSpecs of(Map<String, String> specs) {
+        if (specs == null || specs.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, SpecValue> parsed = new HashMap<>(specs.size() * 2);
+        for (Map.Entry<String, String> entry : specs.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                parsed.put(entry.getKey(), SpecValue.parse(entry.getValue()));
+            }
+        }
+        return new ParsedSpecs(Collections.unmodifiableMap(parsed));
+    }
+
+    /**
+     * Получает разобранное значение характеристики
+     * @param key ключ характеристики
+     * @return значение или {@link SpecValue#ABSENT}, если характеристики нет
+     */
+    public SpecValue get(String key) {
+        SpecValue value = values.get(key);
+        return value != null ? value : SpecValue.ABSENT;
+    }
+
+    /**
+     * Получает строковое значение характеристики
+     * @return значение или пустая строка
+     */
+    public String text(String key) {
+        return get(key).getRaw();
+    }
+
+    /**
+     * Получает числовое значение характеристики
+     * @return число или {@link Double#NaN}, если значение отсутствует или не является числом
+     */
+    public double number(String key) {
+        return get(key).getNumber();
+    }
+
+    /**
+     * Получает целочисленное значение характеристики
+     * @param defaultValue значение по умолчанию
+     * @return целое число или значение по умолчанию
+     */
+    public int integer(String key, int defaultValue) {
+        SpecValue value = get(key);
+        return value.isInteger() ? value.getIntValue() : defaultValue;
+    }
+
+    /**
+     * Получает версию PCIe (первое число в строке, например "PCIe 4.0" -> 4.0)
+     * @return версия или -1, если извлечь не удалось
+     */
+    public double pcieVersion(String key) {
+        return get(key).getVersion();
+    }
+
+    /**
+     * Получает значение характеристики как список (разделитель - запятая)
+     * @return неизменяемый список элементов
+     */
+    public List<String> list(String key) {
+        return get(key).getItems();
+    }
+
+    public boolean has(String key) {
+        return get(key).isPresent();
+    }
+
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    /**
+     * Извлекает версию из строки - первое число вида "4" или "4.0"
+     * (например, "PCIe 4.0" -> 4.0, "PCI Express 3" -> 3)
+     * @return версия или -1, если числа в строке нет
+     */
+    public static double extractVersion(String raw) {
+        if (raw == null) {
+            return -1;
+        }
+        int length = raw.length();
+        int start = 0;
+        while (start < length && !isDigit(raw.charAt(start))) {
+            start++;
+        }
+        if (start == length) {
+            return -1;
+        }
+        int end = start;
+        while (end < length && isDigit(raw.charAt(end))) {
+            end++;
+        }
+        // Дробная часть учитывается, только если после точки есть цифры
+        if (end + 1 < length && raw.charAt(end) == '.' && isDigit(raw.charAt(end + 1))) {
+            end += 2;
+            while (end < length && isDigit(raw.charAt(end))) {
+                end++;
+            }
+        }
+        return Double.parseDouble(raw.substring(start, end));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Разобранное значение одной характеристики
+     */
+    public static final class SpecValue {
+
+        public static final SpecValue ABSENT = new SpecValue("", Double.NaN, false, 0, -1, List.of(), -1);
+
+        private final String raw;
+        private final double number;
+        private final boolean integer;
+        private final int intValue;
+        private final double version;
+        private final List<String> items;
+        private final int digits;
+
+        private SpecValue(String raw, double number, boolean integer, int intValue,
+                          double version, List<String> items, int digits) {
+            this.raw = raw;
+            this.number = number;
+            this.integer = integer;
+            this.intValue = intValue;
+            this.version = version;
+            this.items = items;
+            this.digits = digits;
+        }
+
+        static SpecValue parse(String raw) {
+            if (raw.isEmpty()) {
+                return ABSENT;
+            }
+            long intValue = parseStrictInt(raw);
+            boolean isInteger = intValue != Long.MIN_VALUE;
+            return new SpecValue(
+                    raw,
+                    parseNumber(raw),
+                    isInteger,
+                    isInteger ? (int) intValue : 0,
+                    extractVersion(raw),
+                    parseItems(raw),
+                    parseDigits(raw));
+        }
+
+        /**
+         * Разбирает десятичное число по правилам Double.parseDouble.
+         * Строка сначала проверяется сканером, поэтому нечисловые значения
+         * ("LGA1700", "16GB", "DDR5" и т.п.) отсекаются без исключений
+         */
+        private static double parseNumber(String raw) {
+            String trimmed = raw.trim();
+            return isDecimal(trimmed) ? Double.parseDouble(trimmed) : Double.NaN;
+        }
+
+        /**
+         * Проверяет формат [+-]цифры[.цифры][(e|E)[+-]цифры][d|D|f|F]
+         */
+        private static boolean isDecimal(String s) {
+            int length = s.length();
+            int i = 0;
+            if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            int digits = 0;
+            while (i < length && isDigit(s.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (i < length && s.charAt(i) == '.') {
+                i++;
+                while (i < length && isDigit(s.charAt(i))) {
+                    i++;
+                    digits++;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+                i++;
+                if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                    i++;
+                }
+                int exponentDigits = 0;
+                while (i < length && isDigit(s.charAt(i))) {
+                    i++;
+                    exponentDigits++;
+                }
+                if (exponentDigits == 0) {
+                    return false;
+                }
+            }
+            if (i < length && "dDfF".indexOf(s.charAt(i)) >= 0) {
+                i++;
+            }
+            return i == length;
+        }
+
+        /**
+         * Разбирает целое число по правилам Integer.parseInt
+         * @return значение или Long.MIN_VALUE, если строка не является целым числом
+         */
+        private static long parseStrictInt(String raw) {
+            int length = raw.length();
+            int start = (raw.charAt(0) == '-' || raw.charAt(0) == '+') ? 1 : 0;
+            if (start == length || length - start > 10) {
+                return Long.MIN_VALUE;
+            }
+            long result = 0;
+            for (int i = start; i < length; i++) {
+                char c = raw.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Long.MIN_VALUE;
+                }
+                result = result * 10 + (c - '0');
+            }
+            if (raw.charAt(0) == '-') {
+                result = -result;
+            }
+            return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? Long.MIN_VALUE : result;
+        }
+
+        private static List<String> parseItems(String raw) {
+            if (raw.indexOf(',') < 0) {
+                return List.of(raw.trim());
+            }
+            List<String> items = new ArrayList<>();
+            for (String item : raw.split(",")) {
+                String trimmed = item.trim();
+                if (!trimmed.isEmpty()) {
+                    items.add(trimmed);
+                }
+            }
+            return List.copyOf(items);
+        }
+
+        /**
+         * Извлекает число из всех цифр строки ("32GB" -> 32)
+         * @return значение или -1, если цифр нет или число слишком велико
+         */
+        private static int parseDigits(String raw) {
+            long result = 0;
+            int count = 0;
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    result = result * 10 + (c - '0');
+                    if (++count > 10) {
+                        return -1;
+                    }
+                }
+            }
+            return count == 0 || result > Integer.MAX_VALUE ? -1 : (int) result;
+        }
+
+        public boolean isPresent() {
+            return !raw.isEmpty();
+        }
+
+        public boolean isNumeric() {
+            return !Double.isNaN(number);
+        }
+
+        public String getRaw() {
+            return raw;
+        }
+
+        public double getNumber() {
+            return number;
+        }
+
+        public boolean isInteger() {
+            return integer;
+        }
+
+        public int getIntValue() {
+            return intValue;
+        }
+
+        public double getVersion() {
+            return version;
+        }
+
+        public List<String> getItems() {
+            return items;
+        }
+
+        public int getDigits() {
+            return digits;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package ru.bek.compshp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.Type;
+import ru.bek.compshp.event.ProductEntityListener;
 import ru.bek.compshp.model.enums.ComponentType;
 
 import java.math.BigDecimal;
@@ -19,12 +21,11 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductEntityListener.class)
 @Getter
 @Setter
 @EqualsAndHashCode(exclude = {"manufacturer", "category", "reviews"})
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 @Schema(description = "Информация о товаре в магазине компьютерных комплектующих")
 public class Product {
 
@@ -53,7 +54,6 @@ public class Product {
     @Schema(description = "Количество товара на складе", example = "10")
     private Integer stock;
 
-    @Builder.Default
     @Column(name = "is_active")
     @Schema(description = "Флаг активности товара (доступен ли для продажи)", example = "true")
     private Boolean isActive = true;
@@ -75,7 +75,6 @@ public class Product {
     @Schema(description = "Категория товара")
     private Category category;
 
-    @Builder.Default
     @Type(JsonBinaryType.class)
     @Column(name = "specs", columnDefinition = "jsonb")
     @Schema(description = "Технические характеристики товара", example = "{\"cores\": \"8\", \"frequency\": \"3.8 GHz\"}")
@@ -89,11 +88,82 @@ public class Product {
     @Schema(description = "Дата и время последнего обновления записи о товаре", example = "2023-01-02T15:30:00")
     private LocalDateTime updatedAt;
     
-    @Builder.Default
     @OneToMany(mappedBy = "product")
     @ToString.Exclude
     @Schema(description = "Отзывы о товаре")
     private Set<Review> reviews = new HashSet<>();
+
+    /**
+     * Разобранные характеристики (не сохраняются в БД).
+     * Пересобираются при загрузке/сохранении товара и при замене specs через setSpecs.
+     * Изменение карты specs на месте (getSpecs().put(...)) видно в getParsedSpecs()
+     * только после сохранения товара, поэтому характеристики заменяются целиком.
+     * В билдер и конструктор не входят.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile ParsedSpecs parsedSpecs;
+
+    /**
+     * Конструктор для билдера: все сохраняемые поля, без разобранных характеристик.
+     * Незаданные isActive, specs и reviews получают значения по умолчанию
+     */
+    @Builder
+    public Product(Long id, String title, String description, BigDecimal price, String imagePath,
+                   Integer stock, Boolean isActive, ComponentType componentType, Manufacturer manufacturer,
+                   Category category, Map<String, String> specs, LocalDateTime createdAt,
+                   LocalDateTime updatedAt, Set<Review> reviews) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.imagePath = imagePath;
+        this.stock = stock;
+        this.isActive = isActive != null ? isActive : true;
+        this.componentType = componentType;
+        this.manufacturer = manufacturer;
+        this.category = category;
+        this.specs = specs != null ? specs : new HashMap<>();
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.reviews = reviews != null ? reviews : new HashSet<>();
+    }
+
+    /**
+     * Устанавливает характеристики товара и сбрасывает разобранное представление
+     * @param specs характеристики товара
+     */
+    public void setSpecs(Map<String, String> specs) {
+        this.specs = specs;
+        this.parsedSpecs = null;
+    }
+
+    /**
+     * Получает разобранные характеристики товара.
+     * Значения разбираются один раз и переиспользуются до следующего вызова setSpecs
+     * или сохранения товара.
+     * @return разобранные характеристики
+     */
+    @JsonIgnore
+    public ParsedSpecs getParsedSpecs() {
+        ParsedSpecs parsed = parsedSpecs;
+        if (parsed == null) {
+            parsed = ParsedSpecs.of(specs);
+            parsedSpecs = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * Пересобирает разобранные характеристики при загрузке и сохранении товара
+     */
+    @PostLoad
+    @PrePersist
+    @PreUpdate
+    void refreshParsedSpecs() {
+        this.parsedSpecs = ParsedSpecs.of(specs);
+    }
     
     /**
      * Получает значение спецификации по указанному ключу
@@ -1,7 +1,11 @@
 package ru.bek.compshp.model.enums;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Перечисление типов компонентов компьютера
@@ -39,6 +43,9 @@ public enum ComponentType {
         CPU, MB, RAM, PSU, STORAGE, CASE
     );
 
+    // Компоненты системного блока (без периферии)
+    private static final Set<ComponentType> PC_COMPONENTS = EnumSet.range(CPU, STORAGE);
+
     ComponentType(String displayName) {
         this.displayName = displayName;
     }
@@ -54,4 +61,58 @@ public enum ComponentType {
     public boolean isRequired() {
         return REQUIRED_COMPONENTS.contains(this);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Проверяет, является ли тип компонентом системного блока (а не периферией)
+     * @return true для типов от CPU до STORAGE
+     */
+    public boolean isPcComponent() {
+        return PC_COMPONENTS.contains(this);
+    }
+
+    /**
+     * Возвращает бит типа в маске типов компонентов (номер бита - ordinal)
+     * @return маска из одного бита
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Строит маску из набора типов компонентов
+     * @param types типы компонентов (null-значения игнорируются)
+     * @return битовая маска
+     */
+    public static int maskOf(Collection<ComponentType> types) {
+        int mask = 0;
+        for (ComponentType type : types) {
+            if (type != null) {
+                mask |= type.getMask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Восстанавливает список типов компонентов из маски
+     * @param mask битовая маска
+     * @return типы компонентов в порядке объявления
+     */
+    public static List<ComponentType> fromMask(int mask) {
+        List<ComponentType> types = new ArrayList<>();
+        for (ComponentType type : values()) {
+            if ((mask & type.getMask()) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Маска обязательных компонентов базовой конфигурации ПК.
+     * Значение продублировано в вычисляемом столбце pc_configurations.is_complete (V16)
+     */
+    public static int requiredMask() {
+        return maskOf(REQUIRED_COMPONENTS);
+    }
+}
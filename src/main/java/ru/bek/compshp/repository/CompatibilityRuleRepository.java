@@ -42,4 +42,10 @@ public interface CompatibilityRuleRepository extends JpaRepository<Compatibility
      * @return список активных правил совместимости
      */
     List<CompatibilityRule> findBySourceTypeAndTargetTypeAndIsActiveTrue(ComponentType sourceType, ComponentType targetType);
+
+    /**
+     * Находит все активные правила
+     * @return список активных правил совместимости
+     */
+    List<CompatibilityRule> findByIsActiveTrue();
 } 
\ No newline at end of file
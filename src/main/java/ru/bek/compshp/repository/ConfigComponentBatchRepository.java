@@ -0,0 +1,21 @@
+package ru.bek.compshp.repository;
+
+import ru.bek.compshp.model.PCConfiguration;
+
+import java.util.List;
+
+/**
+ * Пакетные операции с компонентами конфигурации, выполняемые в обход поштучного сохранения JPA
+ */
+public interface ConfigComponentBatchRepository {
+
+    /**
+     * Добавляет компоненты в конфигурацию одним JDBC-пакетом.
+     * Перед вставкой изменения контекста персистентности сбрасываются в БД, после вставки
+     * конфигурация отсоединяется от контекста, чтобы следующая загрузка вернула ее вместе с компонентами.
+     * @param configuration сохраненная конфигурация
+     * @param productIds ID добавляемых товаров
+     * @return количество вставленных строк
+     */
+    int insertComponents(PCConfiguration configuration, List<Long> productIds);
+}
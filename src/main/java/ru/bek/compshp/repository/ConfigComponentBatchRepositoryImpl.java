@@ -0,0 +1,58 @@
+package ru.bek.compshp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.bek.compshp.model.PCConfiguration;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Реализация пакетных операций с компонентами конфигурации
+ */
+@RequiredArgsConstructor
+public class ConfigComponentBatchRepositoryImpl implements ConfigComponentBatchRepository {
+
+    private static final String INSERT_COMPONENT_SQL =
+            "INSERT INTO config_components (config_id, product_id, quantity, created_at, updated_at) VALUES (?, ?, 1, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertComponents(PCConfiguration configuration, List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+
+        // Конфигурация должна оказаться в БД до вставки ссылающихся на нее строк
+        entityManager.flush();
+
+        Long configId = configuration.getId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_COMPONENT_SQL, productIds, productIds.size(),
+                (statement, productId) -> {
+                    statement.setLong(1, configId);
+                    statement.setLong(2, productId);
+                    statement.setTimestamp(3, now);
+                    statement.setTimestamp(4, now);
+                });
+
+        // Коллекция компонентов в контексте устарела - следующая загрузка прочитает ее заново
+        entityManager.detach(configuration);
+
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Драйвер может вернуть SUCCESS_NO_INFO (-2) вместо числа строк
+                inserted += count > 0 ? count : 1;
+            }
+        }
+        return inserted;
+    }
+}
@@ -16,7 +16,7 @@ import java.util.List;
  * Репозиторий для работы с компонентами конфигурации ПК
  */
 @Repository
-public interface ConfigComponentRepository extends JpaRepository<ConfigComponent, ConfigComponentId> {
+public interface ConfigComponentRepository extends JpaRepository<ConfigComponent, ConfigComponentId>, ConfigComponentBatchRepository {
     /**
      * Находит компоненты по идентификатору конфигурации
      * @param configId идентификатор конфигурации
@@ -0,0 +1,85 @@
+package ru.bek.compshp.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.bek.compshp.model.ConfigurationSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий сводок конфигураций.
+ * Списки выбираются постранично по ключу (keyset): следующая страница начинается
+ * после последней строки предыдущей, без OFFSET.
+ */
+@Repository
+public interface ConfigurationSummaryRepository extends JpaRepository<ConfigurationSummary, Long>,
+        ConfigurationSummarySearchRepository {
+
+    /**
+     * Публичные конфигурации, новые первыми
+     */
+    @Query("""
+        SELECT s FROM ConfigurationSummary s
+        WHERE s.isPublic = true
+        AND (s.createdAt < :afterCreatedAt OR (s.createdAt = :afterCreatedAt AND s.configId < :afterId))
+        ORDER BY s.createdAt DESC, s.configId DESC
+    """)
+    List<ConfigurationSummary> findPublicPage(
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Конфигурации в диапазоне цен, дешевые первыми
+     */
+    @Query("""
+        SELECT s FROM ConfigurationSummary s
+        WHERE s.totalPrice BETWEEN :minPrice AND :maxPrice
+        AND (s.totalPrice > :afterPrice OR (s.totalPrice = :afterPrice AND s.configId > :afterId))
+        ORDER BY s.totalPrice ASC, s.configId ASC
+    """)
+    List<ConfigurationSummary> findPriceRangePage(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("afterPrice") BigDecimal afterPrice,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Конфигурации с производительностью не ниже заданной, производительные первыми
+     */
+    @Query("""
+        SELECT s FROM ConfigurationSummary s
+        WHERE s.totalPerformance >= :minPerformance
+        AND (s.totalPerformance < :afterPerformance OR (s.totalPerformance = :afterPerformance AND s.configId < :afterId))
+        ORDER BY s.totalPerformance DESC, s.configId DESC
+    """)
+    List<ConfigurationSummary> findPerformancePage(
+        @Param("minPerformance") double minPerformance,
+        @Param("afterPerformance") double afterPerformance,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Обновляет название процессора в сводках после изменения товара
+     */
+    @Modifying
+    @Query("UPDATE ConfigurationSummary s SET s.cpuName = (SELECT p.title FROM Product p WHERE p.id = :productId) WHERE s.cpuProductId = :productId")
+    int refreshCpuName(@Param("productId") Long productId);
+
+    /**
+     * Обновляет название видеокарты в сводках после изменения товара
+     */
+    @Modifying
+    @Query("UPDATE ConfigurationSummary s SET s.gpuName = (SELECT p.title FROM Product p WHERE p.id = :productId) WHERE s.gpuProductId = :productId")
+    int refreshGpuName(@Param("productId") Long productId);
+}
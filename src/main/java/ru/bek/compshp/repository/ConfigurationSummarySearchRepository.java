@@ -0,0 +1,22 @@
+package ru.bek.compshp.repository;
+
+import ru.bek.compshp.dto.ConfigurationSearchRequest;
+import ru.bek.compshp.model.ConfigurationSummary;
+import ru.bek.compshp.util.KeysetCursor;
+
+import java.util.List;
+
+/**
+ * Поиск сводок конфигураций по произвольному набору фильтров
+ */
+public interface ConfigurationSummarySearchRepository {
+
+    /**
+     * Выбирает страницу сводок, подходящих под фильтры
+     * @param request фильтры и порядок сортировки
+     * @param after курсор последней строки предыдущей страницы (null - первая страница)
+     * @param limit максимальное количество строк
+     * @return сводки в порядке сортировки
+     */
+    List<ConfigurationSummary> search(ConfigurationSearchRequest request, KeysetCursor after, int limit);
+}
@@ -0,0 +1,118 @@
+package ru.bek.compshp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import ru.bek.compshp.dto.ConfigurationSearchRequest;
+import ru.bek.compshp.dto.ConfigurationSearchRequest.SortOrder;
+import ru.bek.compshp.model.ConfigurationSummary;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.util.KeysetCursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация поиска сводок конфигураций.
+ * Запрос собирается только из заданных фильтров, чтобы планировщик видел конкретные
+ * условия и мог использовать индексы, а продолжение страницы задается сравнением
+ * строк (значение сортировки, ID) вместо OFFSET.
+ */
+public class ConfigurationSummarySearchRepositoryImpl implements ConfigurationSummarySearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ConfigurationSummary> search(ConfigurationSearchRequest request, KeysetCursor after, int limit) {
+        SortOrder sort = request.getSort() != null ? request.getSort() : SortOrder.NEWEST;
+        StringBuilder sql = new StringBuilder("SELECT s.* FROM configuration_summaries s WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (request.getUserId() != null) {
+            sql.append(" AND s.user_id = :userId");
+            params.put("userId", request.getUserId());
+        }
+        if (request.getMinPrice() != null) {
+            sql.append(" AND s.total_price >= :minPrice");
+            params.put("minPrice", request.getMinPrice());
+        }
+        if (request.getMaxPrice() != null) {
+            sql.append(" AND s.total_price <= :maxPrice");
+            params.put("maxPrice", request.getMaxPrice());
+        }
+        if (request.getMinPerformance() != null) {
+            sql.append(" AND s.total_performance >= :minPerformance");
+            params.put("minPerformance", request.getMinPerformance());
+        }
+        if (request.getMaxPerformance() != null) {
+            sql.append(" AND s.total_performance <= :maxPerformance");
+            params.put("maxPerformance", request.getMaxPerformance());
+        }
+        if (request.getIsCompatible() != null) {
+            sql.append(" AND s.is_compatible = :isCompatible");
+            params.put("isCompatible", request.getIsCompatible());
+        }
+        if (request.getIsPublic() != null) {
+            sql.append(" AND s.is_public = :isPublic");
+            params.put("isPublic", request.getIsPublic());
+        }
+        if (request.getIsComplete() != null) {
+            // Полная конфигурация содержит все обязательные типы компонентов
+            sql.append(request.getIsComplete()
+                    ? " AND (s.component_types & :requiredMask) = :requiredMask"
+                    : " AND (s.component_types & :requiredMask) <> :requiredMask");
+            params.put("requiredMask", ComponentType.requiredMask());
+        }
+        if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            sql.append(" AND s.category = :category");
+            params.put("category", request.getCategory());
+        }
+        if (request.getProductId() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM config_components cc"
+                    + " WHERE cc.config_id = s.config_id AND cc.product_id = :productId)");
+            params.put("productId", request.getProductId());
+        }
+
+        String column = switch (sort) {
+            case NEWEST -> "s.created_at";
+            case PRICE_ASC -> "s.total_price";
+            case PERFORMANCE_DESC -> "s.total_performance";
+        };
+        boolean descending = sort != SortOrder.PRICE_ASC;
+
+        if (after != null) {
+            sql.append(" AND (").append(column).append(", s.config_id) ")
+                    .append(descending ? "<" : ">")
+                    .append(" (:afterValue, :afterId)");
+            params.put("afterValue", parseSortValue(sort, after.getSortValue()));
+            params.put("afterId", after.getId());
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(column).append(direction)
+                .append(", s.config_id").append(direction);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), ConfigurationSummary.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private Object parseSortValue(SortOrder sort, String value) {
+        try {
+            return switch (sort) {
+                case NEWEST -> LocalDateTime.parse(value);
+                case PRICE_ASC -> new BigDecimal(value);
+                case PERFORMANCE_DESC -> Double.parseDouble(value);
+            };
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Курсор страницы не соответствует порядку сортировки");
+        }
+    }
+}
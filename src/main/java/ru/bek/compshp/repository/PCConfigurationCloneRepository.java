@@ -0,0 +1,21 @@
+package ru.bek.compshp.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Клонирование конфигураций set-based запросами, без поштучного сохранения компонентов через JPA
+ */
+public interface PCConfigurationCloneRepository {
+
+    /**
+     * Копирует конфигурацию каждому из пользователей одним SQL-запросом: конфигурация,
+     * ее компоненты и сводка копируются через INSERT ... SELECT, итоги переносятся без пересчета.
+     * Несуществующие пользователи пропускаются, копии создаются приватными.
+     * @param sourceId ID исходной конфигурации
+     * @param userIds ID пользователей-получателей
+     * @param nameSuffix суффикс названия копии (пустая строка - название без изменений)
+     * @return ID созданных конфигураций
+     */
+    List<Long> cloneToUsers(Long sourceId, Collection<Long> userIds, String nameSuffix);
+}
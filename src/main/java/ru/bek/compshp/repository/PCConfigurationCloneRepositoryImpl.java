@@ -0,0 +1,75 @@
+package ru.bek.compshp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Реализация клонирования конфигураций
+ */
+@RequiredArgsConstructor
+public class PCConfigurationCloneRepositoryImpl implements PCConfigurationCloneRepository {
+
+    /**
+     * Копии конфигурации, компонентов и сводки создаются одним запросом с изменяющими CTE
+     */
+    private static final String CLONE_SQL = """
+        WITH source AS (
+            SELECT * FROM pc_configurations WHERE id = ?
+        ),
+        created AS (
+            INSERT INTO pc_configurations (user_id, name, description, total_price, is_compatible, is_public,
+                                           category, total_performance, component_types, power_draw, psu_wattage,
+                                           created_at, updated_at)
+            SELECT u.id, s.name || ?, s.description, s.total_price, s.is_compatible, FALSE,
+                   s.category, s.total_performance, s.component_types, s.power_draw, s.psu_wattage,
+                   now(), now()
+            FROM source s
+            JOIN users u ON u.id = ANY(?)
+            RETURNING id, user_id, name, is_public, created_at
+        ),
+        components AS (
+            INSERT INTO config_components (config_id, product_id, quantity, created_at, updated_at)
+            SELECT c.id, cc.product_id, cc.quantity, now(), now()
+            FROM created c
+            JOIN config_components cc ON cc.config_id = ?
+        ),
+        summaries AS (
+            INSERT INTO configuration_summaries (config_id, user_id, name, category, is_public, is_compatible,
+                                                 total_price, total_performance, power_draw, component_types,
+                                                 component_count, cpu_product_id, cpu_name, gpu_product_id,
+                                                 gpu_name, created_at, updated_at)
+            SELECT c.id, c.user_id, c.name, s.category, c.is_public, s.is_compatible,
+                   s.total_price, s.total_performance, s.power_draw, s.component_types,
+                   s.component_count, s.cpu_product_id, s.cpu_name, s.gpu_product_id,
+                   s.gpu_name, c.created_at, c.created_at
+            FROM created c
+            JOIN configuration_summaries s ON s.config_id = ?
+        )
+        SELECT id FROM created ORDER BY id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> cloneToUsers(Long sourceId, Collection<Long> userIds, String nameSuffix) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Исходная конфигурация должна быть в БД в актуальном состоянии
+        entityManager.flush();
+
+        Long[] recipients = new LinkedHashSet<>(userIds).toArray(new Long[0]);
+        return jdbcTemplate.queryForList(CLONE_SQL, Long.class,
+                sourceId, nameSuffix, recipients, sourceId, sourceId);
+    }
+}
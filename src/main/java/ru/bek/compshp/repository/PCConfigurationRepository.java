@@ -2,6 +2,7 @@ package ru.bek.compshp.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,12 +11,14 @@ import ru.bek.compshp.model.PCConfiguration;
 import ru.bek.compshp.model.User;
 import ru.bek.compshp.model.Product;
 import ru.bek.compshp.model.enums.ComponentType;
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 // TODO: Репозиторий для конфигураций ПК
 @Repository
-public interface PCConfigurationRepository extends JpaRepository<PCConfiguration, Long> {
+public interface PCConfigurationRepository extends JpaRepository<PCConfiguration, Long>,
+        PCConfigurationCloneRepository {
     // Поиск по пользователю
     List<PCConfiguration> findByUser(User user);
     Page<PCConfiguration> findByUser(User user, Pageable pageable);
@@ -38,17 +41,56 @@ public interface PCConfigurationRepository extends JpaRepository<PCConfiguration
     
     // Поиск по бюджету с сортировкой по производительности
     List<PCConfiguration> findByIsCompatibleTrueAndTotalPriceLessThanEqualOrderByTotalPerformanceDesc(Double budget, Pageable pageable);
-
-    List<PCConfiguration> findByUserId(Long userId);
-    
-    @Query("SELECT pc FROM PCConfiguration pc WHERE pc.totalPrice BETWEEN :minPrice AND :maxPrice")
-    List<PCConfiguration> findByPriceRange(
-        @Param("minPrice") BigDecimal minPrice,
-        @Param("maxPrice") BigDecimal maxPrice
-    );
     
-    @Query("SELECT pc FROM PCConfiguration pc WHERE pc.totalPerformance >= :minPerformance")
-    List<PCConfiguration> findByMinPerformance(@Param("minPerformance") Double minPerformance);
+    /**
+     * Загружает конфигурацию вместе с компонентами, товарами, производителями и категориями одним запросом
+     * @param id ID конфигурации
+     * @return конфигурация с полностью загруженными компонентами
+     */
+    @EntityGraph(attributePaths = {
+        "user",
+        "components",
+        "components.product",
+        "components.product.manufacturer",
+        "components.product.category"
+    })
+    @Query("SELECT pc FROM PCConfiguration pc WHERE pc.id = :id")
+    Optional<PCConfiguration> findWithComponentsById(@Param("id") Long id);
+
+    /**
+     * Возвращает сохраненное потребление конфигурации без загрузки компонентов
+     */
+    @Query("SELECT pc.powerDraw FROM PCConfiguration pc WHERE pc.id = :id")
+    Optional<Integer> findPowerDrawById(@Param("id") Long id);
+
+    /**
+     * Загружает пачку конфигураций вместе с компонентами и товарами одним запросом
+     * @param ids ID конфигураций
+     * @return конфигурации в порядке ID
+     */
+    @EntityGraph(attributePaths = {"components", "components.product"})
+    @Query("SELECT DISTINCT pc FROM PCConfiguration pc WHERE pc.id IN :ids ORDER BY pc.id")
+    List<PCConfiguration> findWithComponentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Выбирает ID конфигураций, в которые входит товар
+     * @param productId ID товара
+     */
+    @Query("SELECT c.id.configId FROM ConfigComponent c WHERE c.id.productId = :productId ORDER BY c.id.configId")
+    List<Long> findIdsByProductId(@Param("productId") Long productId);
+
+    /**
+     * Выбирает следующую пачку ID конфигураций по возрастанию (для потоковой выгрузки)
+     * @param afterId ID последней конфигурации предыдущей пачки
+     */
+    @Query("SELECT pc.id FROM PCConfiguration pc WHERE pc.id > :afterId ORDER BY pc.id")
+    List<Long> findIdPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Выбирает следующую пачку ID конфигураций пользователя по возрастанию
+     */
+    @Query("SELECT pc.id FROM PCConfiguration pc WHERE pc.user.id = :userId AND pc.id > :afterId ORDER BY pc.id")
+    List<Long> findIdPageByUser(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
     
     @Query("""
         SELECT p FROM Product p 
@@ -83,28 +125,29 @@ public interface PCConfigurationRepository extends JpaRepository<PCConfiguration
         @Param("product2Id") Long product2Id
     );
     
-    @Query("""
-        SELECT pc FROM PCConfiguration pc 
-        WHERE pc.id IN (
-            SELECT c.configuration.id 
-            FROM ConfigComponent c 
-            GROUP BY c.configuration.id 
-            HAVING COUNT(c) = :componentCount
-        )
-    """)
-    List<PCConfiguration> findCompleteConfigurations(@Param("componentCount") int componentCount);
+    /**
+     * Конфигурации, содержащие все обязательные типы компонентов.
+     * is_complete - вычисляемый столбец по маске component_types
+     */
+    @Query(value = "SELECT * FROM pc_configurations WHERE is_complete", nativeQuery = true)
+    List<PCConfiguration> findCompleteConfigurations();
     
-    @Query("""
-        SELECT pc FROM PCConfiguration pc 
-        WHERE pc.id IN (
-            SELECT c.configuration.id 
-            FROM ConfigComponent c 
-            GROUP BY c.configuration.id 
-            HAVING COUNT(c) < :componentCount
-        )
-    """)
-    List<PCConfiguration> findIncompleteConfigurations(@Param("componentCount") int componentCount);
-
-    // Поиск публичных конфигураций
-    List<PCConfiguration> findByIsPublicTrue();
+    /**
+     * Конфигурации, в которых не хватает хотя бы одного обязательного типа компонентов
+     */
+    @Query(value = "SELECT * FROM pc_configurations WHERE NOT is_complete", nativeQuery = true)
+    List<PCConfiguration> findIncompleteConfigurations();
+    
+    /**
+     * Конфигурации без компонента указанного типа
+     * @param typeMask маска типа ({@link ComponentType#getMask()})
+     */
+    @Query(value = "SELECT * FROM pc_configurations WHERE (component_types & :typeMask) = 0", nativeQuery = true)
+    List<PCConfiguration> findMissingComponentType(@Param("typeMask") int typeMask);
+    
+    @Query(value = "SELECT COUNT(*) FROM pc_configurations WHERE is_complete", nativeQuery = true)
+    long countCompleteConfigurations();
+    
+    @Query(value = "SELECT COUNT(*) FROM pc_configurations WHERE (component_types & :typeMask) = 0", nativeQuery = true)
+    long countMissingComponentType(@Param("typeMask") int typeMask);
 } 
\ No newline at end of file
@@ -1,9 +1,13 @@
 package ru.bek.compshp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.bek.compshp.model.Product;
@@ -11,15 +15,17 @@ import ru.bek.compshp.model.Manufacturer;
 import ru.bek.compshp.model.Category;
 import ru.bek.compshp.model.enums.ComponentType;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с продуктами
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSpecQueryRepository {
     /**
      * Находит продукты по типу компонента
      * @param componentType тип компонента
@@ -87,11 +93,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
     /**
-     * Находит продукты по имени, содержащему подстроку (без учета регистра)
-     * @param name подстрока для поиска
-     * @return список продуктов
+     * Находит товары по точным названиям
+     * @param titles названия товаров
+     * @return найденные товары
      */
-    List<Product> findByTitleContainingIgnoreCase(String name);
+    List<Product> findByTitleIn(Collection<String> titles);
     
     /**
      * Находит продукты с количеством на складе меньше заданного
@@ -106,6 +112,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return список продуктов
      */
     List<Product> findByManufacturerId(Long manufacturerId);
+
+    /**
+     * Находит ID продуктов производителя
+     * @param manufacturerId идентификатор производителя
+     * @return список ID продуктов
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.manufacturer.id = :manufacturerId")
+    List<Long> findIdsByManufacturerId(@Param("manufacturerId") Long manufacturerId);
     
     /**
      * Находит продукты по категории
@@ -114,6 +128,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
     List<Product> findByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Находит продукты из набора категорий
+     * @param categoryIds идентификаторы категорий
+     * @param sort порядок сортировки
+     * @return список продуктов
+     */
+    List<Product> findByCategoryIdIn(Collection<Long> categoryIds, Sort sort);
     
     // Методы для магазина
     @Query("SELECT p FROM Product p WHERE p.stock > 0 AND p.isActive = true")
@@ -128,32 +150,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND (SELECT COALESCE(AVG(r.rating), 0) FROM Review r WHERE r.product = p) >= :minRating")
     List<Product> findByMinRating(@Param("minRating") Double minRating);
     
-    @Query(value = "SELECT * FROM products p WHERE p.is_active = true AND " +
-           "CAST(p.specs->>'discount' AS INTEGER) > :minDiscount", 
-           nativeQuery = true)
-    List<Product> findByMinDiscount(@Param("minDiscount") Integer minDiscount);
-    
-    // Методы для админки - поиск и фильтрация
-    
-    /**
-     * Поиск продуктов по названию или описанию с пагинацией
-     * @param search строка поиска
-     * @param pageable параметры пагинации
-     * @return страница продуктов
-     */
-    @Query("SELECT p FROM Product p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Product> findByTitleOrDescriptionContaining(@Param("search") String search, Pageable pageable);
-    
-    /**
-     * Поиск продуктов по названию или описанию и типу компонента с пагинацией
-     * @param search строка поиска
-     * @param componentType тип компонента
-     * @param pageable параметры пагинации
-     * @return страница продуктов
-     */
-    @Query("SELECT p FROM Product p WHERE (LOWER(p.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))) AND p.componentType = :componentType")
-    Page<Product> findByTitleOrDescriptionContainingAndComponentType(@Param("search") String search, @Param("componentType") ComponentType componentType, Pageable pageable);
-    
     // Методы для готовых сборок
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.componentType IS NULL AND p.isActive = true")
     List<Product> findReadyPCs(@Param("categoryId") Long categoryId);
@@ -171,6 +167,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Param("maxPrice") BigDecimal maxPrice
     );
     
+    /**
+     * Находит доступные компоненты нескольких типов в рамках бюджета одним запросом
+     * @param types типы компонентов
+     * @param maxPrice максимальная цена компонента
+     * @return список компонентов
+     */
+    @Query("SELECT p FROM Product p WHERE p.componentType IN :types AND p.price <= :maxPrice AND p.isActive = true AND p.stock > 0")
+    List<Product> findComponentsInBudget(
+        @Param("types") Collection<ComponentType> types,
+        @Param("maxPrice") BigDecimal maxPrice
+    );
+    
     @Query(value = "SELECT * FROM products p WHERE p.component_type = :#{#type.name()} " +
            "AND CAST(p.specs->>'performance' AS DOUBLE PRECISION) >= :minPerformance " +
            "AND p.is_active = true AND p.stock > 0", 
@@ -187,11 +195,53 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Param("maxPrice") BigDecimal maxPrice
     );
     
-    // Методы для поиска по спецификациям
-    @Query(value = "SELECT * FROM products p WHERE p.is_active = true " +
-           "AND EXISTS (SELECT 1 FROM jsonb_each_text(p.specs) as s(k,v) WHERE s.k IN (:keys))",
-           nativeQuery = true)
-    List<Product> findBySpecs(@Param("keys") List<String> keys);
+    // Постраничная выборка по ключу (ID по возрастанию) для списков каталога
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.stock > 0 AND p.isActive = true AND p.id > :afterId ORDER BY p.id")
+    List<Product> findAvailablePageAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND p.id > :afterId ORDER BY p.id")
+    List<Product> findPageByCategoryIdInAfter(@Param("categoryIds") Collection<Long> categoryIds,
+                                              @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.manufacturer.id = :manufacturerId AND p.id > :afterId ORDER BY p.id")
+    List<Product> findPageByManufacturerIdAfter(@Param("manufacturerId") Long manufacturerId,
+                                                @Param("afterId") Long afterId, Pageable pageable);
+    
+    // Потоковая выборка для выгрузки каталога: строки читаются курсором пачками по fetch size,
+    // производитель и категория загружаются тем же запросом
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.manufacturer JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAll();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.manufacturer JOIN FETCH p.category " +
+           "WHERE p.stock > 0 AND p.isActive = true ORDER BY p.id")
+    Stream<Product> streamAvailable();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.manufacturer JOIN FETCH p.category " +
+           "WHERE p.category.id IN :categoryIds ORDER BY p.id")
+    Stream<Product> streamByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.manufacturer JOIN FETCH p.category " +
+           "WHERE p.manufacturer.id = :manufacturerId ORDER BY p.id")
+    Stream<Product> streamByManufacturerId(@Param("manufacturerId") Long manufacturerId);
     
     // Методы для работы с производителями
     @Query("SELECT m FROM Manufacturer m WHERE m.id = :id")
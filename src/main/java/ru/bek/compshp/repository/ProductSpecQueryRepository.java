@@ -0,0 +1,20 @@
+package ru.bek.compshp.repository;
+
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.util.SpecFilter;
+
+import java.util.List;
+
+/**
+ * Поиск товаров по условиям на характеристики
+ */
+public interface ProductSpecQueryRepository {
+
+    /**
+     * Находит товары, удовлетворяющие всем условиям на характеристики
+     * @param filters условия (объединяются через AND)
+     * @param activeOnly только активные товары
+     * @return товары в порядке ID
+     */
+    List<Product> findBySpecFilters(List<SpecFilter> filters, boolean activeOnly);
+}
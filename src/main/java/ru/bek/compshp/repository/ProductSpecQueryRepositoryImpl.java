@@ -0,0 +1,76 @@
+package ru.bek.compshp.repository;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.util.SpecFilter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация поиска товаров по характеристикам.
+ * Равенство и принадлежность списку проверяются через вхождение jsonb (@>), которое
+ * обслуживает GIN-индекс по specs; числовые сравнения идут через spec_number(specs, 'ключ'),
+ * для распространенных ключей есть индексы по этому выражению (V18).
+ * Ключ подставляется литералом, чтобы выражение совпало с индексным при любом плане запроса;
+ * ключи проверяются в {@link SpecFilter}, значения передаются параметрами.
+ */
+public class ProductSpecQueryRepositoryImpl implements ProductSpecQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Product> findBySpecFilters(List<SpecFilter> filters, boolean activeOnly) {
+        StringBuilder sql = new StringBuilder("SELECT p.* FROM products p WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (activeOnly) {
+            sql.append(" AND p.is_active = true");
+        }
+        for (int i = 0; i < filters.size(); i++) {
+            SpecFilter filter = filters.get(i);
+            String param = "f" + i;
+            switch (filter.getOperator()) {
+                case EQ -> {
+                    sql.append(" AND p.specs @> CAST(:").append(param).append(" AS jsonb)");
+                    params.put(param, containment(filter.getKey(), filter.getValues().get(0)));
+                }
+                case IN -> {
+                    sql.append(" AND (");
+                    for (int j = 0; j < filter.getValues().size(); j++) {
+                        String valueParam = param + "_" + j;
+                        if (j > 0) {
+                            sql.append(" OR ");
+                        }
+                        sql.append("p.specs @> CAST(:").append(valueParam).append(" AS jsonb)");
+                        params.put(valueParam, containment(filter.getKey(), filter.getValues().get(j)));
+                    }
+                    sql.append(")");
+                }
+                default -> {
+                    sql.append(" AND spec_number(p.specs, '").append(filter.getKey()).append("') ")
+                            .append(filter.getOperator().getSymbol()).append(" :").append(param);
+                    params.put(param, filter.getNumber());
+                }
+            }
+        }
+        sql.append(" ORDER BY p.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Product.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * Документ jsonb {"ключ": "значение"} для проверки вхождения
+     */
+    private static String containment(String key, String value) {
+        return JsonNodeFactory.instance.objectNode().put(key, value).toString();
+    }
+}
@@ -1,6 +1,7 @@
 package ru.bek.compshp.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -39,6 +40,7 @@ public class AdminService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final ProductRepository productRepository;
+    private final ProductService productService;
     private final OrderRepository orderRepository;
     private final PCConfigurationRepository pcConfigurationRepository;
     private final CategoryRepository categoryRepository;
@@ -543,6 +545,7 @@ public class AdminService {
      * @return обновленная категория
      */
     @Transactional
+    @CacheEvict(value = ProductService.PC_COMPONENT_PRODUCTS_CACHE, allEntries = true)
     public Category updateCategory(Long id, CategoryDto categoryDto) {
         Category category = getCategoryById(id);
         
@@ -639,6 +642,7 @@ public class AdminService {
      * @return обновленный производитель
      */
     @Transactional
+    @CacheEvict(value = ProductService.PC_COMPONENT_PRODUCTS_CACHE, allEntries = true)
     public Manufacturer updateManufacturer(Long id, String name, String description) {
         Manufacturer manufacturer = getManufacturerById(id);
         manufacturer.setName(name);
@@ -741,21 +745,21 @@ public class AdminService {
     /**
      * Получает список продуктов с фильтрацией
      * @param pageable параметры пагинации
-     * @param search поисковый запрос (название, описание)
+     * @param search поисковый запрос (название, описание, производитель, характеристики)
      * @param componentType тип компонента
-     * @return отфильтрованный список продуктов
+     * @return отфильтрованный список продуктов (при поиске - по убыванию релевантности)
      */
     public Page<Product> getProductsWithFilters(Pageable pageable, String search, String componentType) {
-        if (search != null && !search.isEmpty() && componentType != null && !componentType.isEmpty()) {
-            try {
-                ComponentType type = ComponentType.valueOf(componentType);
-                return productRepository.findByTitleOrDescriptionContainingAndComponentType(search, type, pageable);
-            } catch (IllegalArgumentException e) {
-                // Если тип компонента не найден, игнорируем его и ищем только по поисковому запросу
-                return productRepository.findByTitleOrDescriptionContaining(search, pageable);
+        if (search != null && !search.isEmpty()) {
+            ComponentType type = null;
+            if (componentType != null && !componentType.isEmpty()) {
+                try {
+                    type = ComponentType.valueOf(componentType);
+                } catch (IllegalArgumentException e) {
+                    // Если тип компонента не найден, игнорируем его и ищем только по поисковому запросу
+                }
             }
-        } else if (search != null && !search.isEmpty()) {
-            return productRepository.findByTitleOrDescriptionContaining(search, pageable);
+            return productService.searchProducts(search, type, false, pageable);
         } else if (componentType != null && !componentType.isEmpty()) {
             try {
                 ComponentType type = ComponentType.valueOf(componentType);
@@ -0,0 +1,338 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ProductRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Матрица совместимости компонентов.
+ * Для каждого типа компонентов хранит список товаров (позиция товара = номер бита),
+ * а для каждого исходного товара и целевого типа - битовую строку совместимых товаров.
+ * Подбор совместимых компонентов сводится к пересечению (AND) строк уже выбранных деталей.
+ *
+ * Строки вычисляются при первом обращении и переиспользуются. При изменении товара
+ * матрица обновляется инкрементально (пересчитывается только столбец и строки этого товара),
+ * при изменении набора правил - сбрасывается целиком.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompatibilityMatrix {
+
+    /**
+     * Маркер строки, в которой совместимы все товары целевого типа
+     */
+    private static final BitSet ALL = new BitSet(0);
+
+    private final ProductRepository productRepository;
+    private final CompatibilityRuleEngine ruleEngine;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<ComponentType, TypeSlice> slices = new EnumMap<>(ComponentType.class);
+    private final Map<Long, SourceRows> rows = new ConcurrentHashMap<>();
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private volatile long ruleVersion = -1;
+
+    /**
+     * Находит ID товаров указанного типа, совместимых со всеми выбранными товарами
+     * @param selected уже выбранные товары
+     * @param targetType тип искомых товаров
+     * @return ID совместимых товаров в порядке их загрузки
+     */
+    public List<Long> findCompatibleIds(Collection<Product> selected, ComponentType targetType) {
+        refresh();
+
+        // Нужны срезы целевого типа и типов выбранных товаров (по ним берутся исходные товары строк)
+        Set<ComponentType> types = EnumSet.of(targetType);
+        for (Product product : selected) {
+            if (product.getComponentType() != null) {
+                types.add(product.getComponentType());
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            ComponentType missing;
+            while ((missing = findMissingSlice(types)) != null) {
+                // Срез еще не загружен - загрузим под блокировкой записи и проверим заново:
+                // пока блокировка чтения отпущена, срезы могли быть сброшены
+                lock.readLock().unlock();
+                try {
+                    loadSlice(missing);
+                } finally {
+                    lock.readLock().lock();
+                }
+            }
+            TypeSlice slice = slices.get(targetType);
+
+            BitSet result = (BitSet) slice.live.clone();
+            for (Product product : selected) {
+                if (result.isEmpty()) {
+                    break;
+                }
+                BitSet row = row(product, targetType, slice);
+                if (row != ALL) {
+                    result.and(row);
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(result.cardinality());
+            for (int pos = result.nextSetBit(0); pos >= 0; pos = result.nextSetBit(pos + 1)) {
+                ids.add(slice.products.get(pos).getId());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Находит товары указанного типа, совместимые со всеми выбранными товарами,
+     * без обращения к БД - возвращаются экземпляры из среза матрицы.
+     * Экземпляры разделяются между потоками и отсоединены от контекста персистентности:
+     * их можно только читать, ленивые связи (отзывы) не загружены.
+     * @param selected уже выбранные товары
+     * @param targetType тип искомых товаров
+     * @return совместимые товары в порядке их загрузки
+     */
+    public List<Product> findCompatibleSnapshot(Collection<Product> selected, ComponentType targetType) {
+        List<Long> ids = findCompatibleIds(selected, targetType);
+        List<Product> result = new ArrayList<>(ids.size());
+        lock.readLock().lock();
+        try {
+            TypeSlice slice = slices.get(targetType);
+            if (slice == null) {
+                return List.of();
+            }
+            for (Long id : ids) {
+                Integer pos = slice.positions.get(id);
+                if (pos != null) {
+                    result.add(slice.products.get(pos));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Находит товары указанного типа, совместимые со всеми выбранными товарами.
+     * Товары загружаются одним запросом в текущем контексте персистентности.
+     * @param selected уже выбранные товары
+     * @param targetType тип искомых товаров
+     * @return список совместимых товаров
+     */
+    public List<Product> findCompatible(Collection<Product> selected, ComponentType targetType) {
+        List<Long> ids = findCompatibleIds(selected, targetType);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Product> byId = new HashMap<>(ids.size() * 2);
+        for (Product product : productRepository.findAllById(ids)) {
+            byId.put(product.getId(), product);
+        }
+
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Помечает измененный товар для инкрементального обновления матрицы
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pendingProducts.add(event.getProductId());
+    }
+
+    /**
+     * Применяет накопленные изменения товаров и правил
+     */
+    private void refresh() {
+        long currentRuleVersion = ruleEngine.getVersion();
+        if (currentRuleVersion == ruleVersion && pendingProducts.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (currentRuleVersion != ruleVersion) {
+                // Набор правил изменился - все строки устарели
+                slices.clear();
+                rows.clear();
+                pendingProducts.clear();
+                ruleVersion = currentRuleVersion;
+                log.debug("Матрица совместимости сброшена: версия правил {}", currentRuleVersion);
+                return;
+            }
+            if (pendingProducts.isEmpty()) {
+                return;
+            }
+
+            List<Long> changedIds = new ArrayList<>(pendingProducts);
+            pendingProducts.removeAll(changedIds);
+
+            Map<Long, Product> changed = new HashMap<>();
+            for (Product product : productRepository.findAllById(changedIds)) {
+                changed.put(product.getId(), product);
+            }
+            for (Long id : changedIds) {
+                applyChange(id, changed.get(id));
+            }
+            log.debug("Матрица совместимости обновлена для {} товаров", changedIds.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Инкрементально обновляет матрицу для одного товара
+     * @param productId ID товара
+     * @param product новое состояние товара или null, если товар удален
+     */
+    private void applyChange(Long productId, Product product) {
+        // Строки товара как источника пересчитаются при следующем обращении
+        rows.remove(productId);
+
+        // Убираем товар из столбца его прежнего типа
+        for (TypeSlice slice : slices.values()) {
+            Integer pos = slice.positions.remove(productId);
+            if (pos != null) {
+                slice.live.clear(pos);
+                slice.products.set(pos, null);
+            }
+        }
+
+        if (product == null || product.getComponentType() == null) {
+            return;
+        }
+
+        TypeSlice slice = slices.get(product.getComponentType());
+        if (slice == null) {
+            // Срез еще не загружен, товар попадет в него при загрузке
+            return;
+        }
+
+        int pos = slice.add(product);
+        for (SourceRows sourceRows : rows.values()) {
+            BitSet row = sourceRows.byType.get(product.getComponentType());
+            if (row != null && row != ALL && ruleEngine.isPairCompatible(sourceRows.source, product)) {
+                row.set(pos);
+            }
+        }
+    }
+
+    /**
+     * Возвращает первый тип, срез которого еще не загружен, или null.
+     * Вызывается под блокировкой чтения
+     */
+    private ComponentType findMissingSlice(Set<ComponentType> types) {
+        for (ComponentType type : types) {
+            if (!slices.containsKey(type)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private void loadSlice(ComponentType type) {
+        lock.writeLock().lock();
+        try {
+            if (slices.containsKey(type)) {
+                return;
+            }
+            TypeSlice slice = new TypeSlice();
+            for (Product product : productRepository.findByComponentType(type)) {
+                slice.add(product);
+            }
+            slices.put(type, slice);
+            log.debug("Загружен срез матрицы совместимости {}: {} товаров", type, slice.positions.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает строку совместимости товара с товарами целевого типа, вычисляя ее при необходимости.
+     * Вызывается под блокировкой чтения: срезы не меняются, строки добавляются атомарно.
+     *
+     * Строки кэшируются только для товаров из срезов матрицы и хранят экземпляр товара из среза,
+     * поэтому их число ограничено каталогом, а товары из контекстов запросов не удерживаются.
+     * Для остальных товаров (новых, без типа, удаленных) строка вычисляется без кэширования.
+     */
+    private BitSet row(Product source, ComponentType targetType, TypeSlice slice) {
+        TypeSlice sourceSlice = source.getId() != null && source.getComponentType() != null
+                ? slices.get(source.getComponentType())
+                : null;
+        Integer sourcePos = sourceSlice != null ? sourceSlice.positions.get(source.getId()) : null;
+        if (sourcePos == null) {
+            return computeRow(source, targetType, slice);
+        }
+        Product snapshot = sourceSlice.products.get(sourcePos);
+        SourceRows sourceRows = rows.computeIfAbsent(source.getId(), id -> new SourceRows(snapshot));
+        return sourceRows.byType.computeIfAbsent(targetType, type -> computeRow(sourceRows.source, type, slice));
+    }
+
+    private BitSet computeRow(Product source, ComponentType targetType, TypeSlice slice) {
+        ComponentType sourceType = source.getComponentType();
+        // Между разными типами без правил совместимы все товары
+        if (sourceType != null && sourceType != targetType && !ruleEngine.hasRulesBetween(sourceType, targetType)) {
+            return ALL;
+        }
+
+        BitSet row = new BitSet(slice.products.size());
+        for (int pos = slice.live.nextSetBit(0); pos >= 0; pos = slice.live.nextSetBit(pos + 1)) {
+            if (ruleEngine.isPairCompatible(source, slice.products.get(pos))) {
+                row.set(pos);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Товары одного типа; позиция в списке соответствует номеру бита в строках
+     */
+    private static final class TypeSlice {
+        private final List<Product> products = new ArrayList<>();
+        private final Map<Long, Integer> positions = new HashMap<>();
+        private final BitSet live = new BitSet();
+
+        private int add(Product product) {
+            int pos = products.size();
+            products.add(product);
+            positions.put(product.getId(), pos);
+            live.set(pos);
+            return pos;
+        }
+    }
+
+    /**
+     * Строки совместимости одного исходного товара по целевым типам
+     */
+    private static final class SourceRows {
+        private final Product source;
+        private final Map<ComponentType, BitSet> byType = new ConcurrentHashMap<>();
+
+        private SourceRows(Product source) {
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.bek.compshp.dto.RuleAnalysisReport;
+import ru.bek.compshp.dto.RuleAnalysisReport.FindingType;
+import ru.bek.compshp.dto.RuleAnalysisReport.RuleFinding;
+import ru.bek.compshp.model.CompatibilityRule;
+import ru.bek.compshp.model.CompatibilityRule.Operator;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.CompatibilityRuleRepository;
+
+import java.util.*;
+
+/**
+ * Анализ набора правил совместимости: противоречия, дубликаты, избыточные и неприменимые правила.
+ *
+ * Правила группируются по (тип источника, тип цели, характеристика источника, характеристика цели):
+ * только правила одной группы проверяются вместе для одной пары значений. Числовые операторы
+ * представляются множеством допустимых знаков разности (source - target): отрицательная, ноль,
+ * положительная. Тогда пересечение пустых множеств - противоречие, равные множества - дубликат,
+ * вложенное множество - избыточное более слабое правило. Сравнение сводится к битовым операциям.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompatibilityRuleAnalyzer {
+
+    private static final int NEGATIVE = 1;
+    private static final int ZERO = 2;
+    private static final int POSITIVE = 4;
+
+    private final CompatibilityRuleRepository compatibilityRuleRepository;
+    private final CompatibilityRuleEngine ruleEngine;
+
+    /**
+     * Анализирует все активные правила за один проход
+     * @return отчет с найденными проблемами
+     */
+    public RuleAnalysisReport analyzeAll() {
+        List<CompatibilityRule> rules = compatibilityRuleRepository.findByIsActiveTrue();
+        List<RuleFinding> findings = new ArrayList<>();
+        Map<RuleKey, List<CompatibilityRule>> groups = new LinkedHashMap<>();
+
+        for (CompatibilityRule rule : rules) {
+            String unreachable = findUnreachableReason(rule);
+            if (unreachable != null) {
+                findings.add(finding(FindingType.UNREACHABLE, unreachable, rule));
+                continue;
+            }
+            groups.computeIfAbsent(RuleKey.of(rule), key -> new ArrayList<>()).add(rule);
+        }
+
+        for (List<CompatibilityRule> group : groups.values()) {
+            for (int i = 0; i < group.size(); i++) {
+                CompatibilityRule first = group.get(i);
+                for (int j = i + 1; j < group.size(); j++) {
+                    CompatibilityRule second = group.get(j);
+                    RuleFinding finding = compare(first, second);
+                    if (finding != null) {
+                        findings.add(finding);
+                    }
+                }
+            }
+        }
+
+        log.debug("Анализ правил совместимости: {} правил, {} групп, {} проблем",
+                rules.size(), groups.size(), findings.size());
+
+        return RuleAnalysisReport.builder()
+                .ruleCount(rules.size())
+                .groupCount(groups.size())
+                .findings(findings)
+                .build();
+    }
+
+    /**
+     * Проверяет правило перед сохранением.
+     * Правило сравнивается только с действующими правилами своей группы из уже загруженного набора,
+     * без обращения к базе.
+     * @param rule новое или изменяемое правило
+     * @return список сообщений о конфликтах или пустой список, если конфликтов нет
+     */
+    public List<String> findConflicts(CompatibilityRule rule) {
+        List<String> conflicts = new ArrayList<>();
+
+        // Проверяем, что типы компонентов разные
+        if (rule.getSourceType() == rule.getTargetType()) {
+            conflicts.add("Правило не может применяться к компонентам одного типа");
+        }
+
+        Operator operator = parseOperator(rule);
+        if (operator == null) {
+            conflicts.add("Неизвестный оператор сравнения: " + rule.getComparisonOperator());
+            return conflicts;
+        }
+
+        // Неактивное правило не участвует в проверке и не может конфликтовать
+        if (Boolean.FALSE.equals(rule.getIsActive()) || !conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        RuleKey key = RuleKey.of(rule);
+        for (CompatibilityRuleEngine.CompiledRule existing : ruleEngine.getRules(rule.getSourceType(), rule.getTargetType())) {
+            CompatibilityRule existingRule = existing.getRule();
+            // Пропускаем, если это то же самое правило (при обновлении)
+            if (rule.getId() != null && rule.getId().equals(existingRule.getId())) {
+                continue;
+            }
+            if (!key.equals(RuleKey.of(existingRule))) {
+                continue;
+            }
+
+            Relation relation = relate(operator, isPCIe(rule), existing.getOperator(), existing.isPcieCheck());
+            if (relation == Relation.CONTRADICTION || relation == Relation.DUPLICATE) {
+                conflicts.add("Конфликт с существующим правилом: " + existingRule.getDescription());
+            }
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * Сравнивает два правила одной группы
+     * @return проблема или null, если правила совместимы и независимы
+     */
+    private RuleFinding compare(CompatibilityRule first, CompatibilityRule second) {
+        Relation relation = relate(parseOperator(first), isPCIe(first), parseOperator(second), isPCIe(second));
+        switch (relation) {
+            case CONTRADICTION:
+                return finding(FindingType.CONTRADICTION, String.format(
+                        "Правила для %s противоречат друг другу (%s и %s): пара с этими характеристиками никогда не пройдет проверку",
+                        describeGroup(first), first.getComparisonOperator(), second.getComparisonOperator()),
+                        first, second);
+            case DUPLICATE:
+                return finding(FindingType.DUPLICATE, String.format(
+                        "Правила для %s задают одно и то же условие (%s)",
+                        describeGroup(first), first.getComparisonOperator()),
+                        first, second);
+            case FIRST_IMPLIES_SECOND:
+                return redundant(second, first);
+            case SECOND_IMPLIES_FIRST:
+                return redundant(first, second);
+            default:
+                return null;
+        }
+    }
+
+    private RuleFinding redundant(CompatibilityRule weaker, CompatibilityRule stronger) {
+        return finding(FindingType.REDUNDANT, String.format(
+                "Правило %s для %s следует из правила %s и может быть удалено",
+                weaker.getComparisonOperator(), describeGroup(weaker), stronger.getComparisonOperator()),
+                weaker, stronger);
+    }
+
+    /**
+     * Определяет отношение между условиями двух правил одной группы
+     */
+    private static Relation relate(Operator first, boolean firstPCIe, Operator second, boolean secondPCIe) {
+        if (first == null || second == null) {
+            return Relation.NONE;
+        }
+
+        // Проверка версий PCIe сравнима только с такой же проверкой
+        if (first == Operator.CONTAINS && firstPCIe || second == Operator.CONTAINS && secondPCIe) {
+            return first == second ? Relation.DUPLICATE : Relation.NONE;
+        }
+
+        if (first == Operator.CONTAINS || second == Operator.CONTAINS) {
+            if (first == second) {
+                return Relation.DUPLICATE;
+            }
+            // Равные строки всегда содержат друг друга
+            if (first == Operator.EQUALS) {
+                return Relation.FIRST_IMPLIES_SECOND;
+            }
+            if (second == Operator.EQUALS) {
+                return Relation.SECOND_IMPLIES_FIRST;
+            }
+            return Relation.NONE;
+        }
+
+        int firstMask = signMask(first);
+        int secondMask = signMask(second);
+        if ((firstMask & secondMask) == 0) {
+            return Relation.CONTRADICTION;
+        }
+        if (firstMask == secondMask) {
+            return Relation.DUPLICATE;
+        }
+        if ((firstMask & ~secondMask) == 0) {
+            return Relation.FIRST_IMPLIES_SECOND;
+        }
+        if ((secondMask & ~firstMask) == 0) {
+            return Relation.SECOND_IMPLIES_FIRST;
+        }
+        return Relation.NONE;
+    }
+
+    /**
+     * Допустимые знаки разности (source - target) для оператора
+     */
+    private static int signMask(Operator operator) {
+        switch (operator) {
+            case EQUALS:
+                return ZERO;
+            case NOT_EQUALS:
+                return NEGATIVE | POSITIVE;
+            case GREATER_THAN:
+                return POSITIVE;
+            case LESS_THAN:
+                return NEGATIVE;
+            case GREATER_THAN_EQUALS:
+                return ZERO | POSITIVE;
+            case LESS_THAN_EQUALS:
+                return NEGATIVE | ZERO;
+            default:
+                return NEGATIVE | ZERO | POSITIVE;
+        }
+    }
+
+    /**
+     * Определяет, почему правило никогда не применяется
+     * @return причина или null, если правило применяется
+     */
+    private static String findUnreachableReason(CompatibilityRule rule) {
+        if (rule.getSourceType() == null || rule.getTargetType() == null) {
+            return "Правило " + rule.getId() + " не указывает типы компонентов";
+        }
+        if (rule.getSourceType() == rule.getTargetType()) {
+            return String.format("Правило %d относится к компонентам одного типа (%s), которые никогда не проверяются вместе",
+                    rule.getId(), rule.getSourceType());
+        }
+        if (parseOperator(rule) == null) {
+            return String.format("Правило %d использует неизвестный оператор '%s' и пропускается при проверке",
+                    rule.getId(), rule.getComparisonOperator());
+        }
+        return null;
+    }
+
+    private static Operator parseOperator(CompatibilityRule rule) {
+        try {
+            return Operator.fromString(rule.getComparisonOperator());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPCIe(CompatibilityRule rule) {
+        return CompatibilityRuleEngine.isPCIeCompatibilityCheck(rule.getSourceProperty(), rule.getTargetProperty());
+    }
+
+    private static String describeGroup(CompatibilityRule rule) {
+        return String.format("%s.%s -> %s.%s", rule.getSourceType(), rule.getSourceProperty(),
+                rule.getTargetType(), rule.getTargetProperty());
+    }
+
+    private static RuleFinding finding(FindingType type, String message, CompatibilityRule... rules) {
+        List<Long> ids = new ArrayList<>(rules.length);
+        for (CompatibilityRule rule : rules) {
+            ids.add(rule.getId());
+        }
+        return RuleFinding.builder()
+                .type(type)
+                .ruleIds(ids)
+                .message(message)
+                .build();
+    }
+
+    private enum Relation {
+        NONE,
+        CONTRADICTION,
+        DUPLICATE,
+        FIRST_IMPLIES_SECOND,
+        SECOND_IMPLIES_FIRST
+    }
+
+    /**
+     * Группа правил: правила одной группы проверяются вместе для одной пары значений
+     */
+    private static final class RuleKey {
+        private final ComponentType sourceType;
+        private final ComponentType targetType;
+        private final String sourceProperty;
+        private final String targetProperty;
+
+        private RuleKey(ComponentType sourceType, ComponentType targetType, String sourceProperty, String targetProperty) {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+            this.sourceProperty = sourceProperty;
+            this.targetProperty = targetProperty;
+        }
+
+        private static RuleKey of(CompatibilityRule rule) {
+            return new RuleKey(rule.getSourceType(), rule.getTargetType(),
+                    rule.getSourceProperty(), rule.getTargetProperty());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RuleKey other)) {
+                return false;
+            }
+            return sourceType == other.sourceType
+                    && targetType == other.targetType
+                    && Objects.equals(sourceProperty, other.sourceProperty)
+                    && Objects.equals(targetProperty, other.targetProperty);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceType, targetType, sourceProperty, targetProperty);
+        }
+    }
+}
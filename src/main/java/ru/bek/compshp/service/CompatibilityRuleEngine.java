@@ -0,0 +1,291 @@
+package ru.bek.compshp.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.bek.compshp.model.CompatibilityRule;
+import ru.bek.compshp.model.ParsedSpecs;
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.CompatibilityRuleRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Движок правил совместимости.
+ * Загружает все активные правила один раз, компилирует каждое в готовый предикат
+ * и хранит их в неизменяемом наборе, индексированном по паре (sourceType, targetType).
+ * При изменении правил набор пересобирается и атомарно подменяется.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompatibilityRuleEngine {
+
+    private final CompatibilityRuleRepository compatibilityRuleRepository;
+
+    private final AtomicReference<RuleSet> ruleSet = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+
+    /**
+     * Возвращает скомпилированные правила для пары типов компонентов
+     * @param sourceType тип исходного компонента
+     * @param targetType тип целевого компонента
+     * @return неизменяемый список правил (пустой, если правил нет)
+     */
+    public List<CompiledRule> getRules(ComponentType sourceType, ComponentType targetType) {
+        if (sourceType == null || targetType == null) {
+            return List.of();
+        }
+        return current().get(sourceType, targetType);
+    }
+
+    /**
+     * Проверяет совместимость компонента source с компонентом target по правилам (source -> target)
+     * @param source исходный компонент
+     * @param target целевой компонент
+     * @return true, если все правила для пары типов выполнены
+     */
+    public boolean check(Product source, Product target) {
+        // Если оба компонента - периферийные устройства, считаем их совместимыми
+        if (source.isPeripheral() && target.isPeripheral()) {
+            return true;
+        }
+
+        ComponentType sourceType = source.getComponentType();
+        ComponentType targetType = target.getComponentType();
+
+        // Если компоненты одного типа, они не могут быть совместимы для одной сборки
+        if (sourceType == targetType) {
+            return false;
+        }
+
+        // Если правил нет, считаем, что компоненты совместимы
+        for (CompiledRule rule : getRules(sourceType, targetType)) {
+            if (!rule.matches(source, target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет совместимость пары компонентов хотя бы в одном направлении
+     */
+    public boolean isPairCompatible(Product first, Product second) {
+        return check(first, second) || check(second, first);
+    }
+
+    /**
+     * Проверяет, есть ли правила хотя бы в одном направлении между двумя типами
+     */
+    public boolean hasRulesBetween(ComponentType first, ComponentType second) {
+        return !getRules(first, second).isEmpty() || !getRules(second, first).isEmpty();
+    }
+
+    /**
+     * Возвращает версию текущего набора правил.
+     * Версия увеличивается при каждой пересборке набора.
+     */
+    public long getVersion() {
+        return current().getVersion();
+    }
+
+    /**
+     * Перечитывает активные правила из базы и атомарно подменяет набор
+     */
+    public void reload() {
+        RuleSet loaded = load();
+        ruleSet.set(loaded);
+        log.info("Набор правил совместимости пересобран: {} правил, версия {}", loaded.getSize(), loaded.getVersion());
+    }
+
+    /**
+     * Пересобирает набор правил после фиксации текущей транзакции
+     * (или сразу, если транзакции нет)
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    private RuleSet current() {
+        RuleSet current = ruleSet.get();
+        if (current == null) {
+            synchronized (this) {
+                current = ruleSet.get();
+                if (current == null) {
+                    current = load();
+                    ruleSet.set(current);
+                }
+            }
+        }
+        return current;
+    }
+
+    private RuleSet load() {
+        Map<ComponentType, Map<ComponentType, List<CompiledRule>>> index = new EnumMap<>(ComponentType.class);
+        int size = 0;
+
+        for (CompatibilityRule rule : compatibilityRuleRepository.findByIsActiveTrue()) {
+            if (rule.getSourceType() == null || rule.getTargetType() == null) {
+                continue;
+            }
+            CompiledRule compiled;
+            try {
+                compiled = compile(rule);
+            } catch (IllegalArgumentException e) {
+                log.warn("Правило совместимости {} пропущено: {}", rule.getId(), e.getMessage());
+                continue;
+            }
+            index.computeIfAbsent(rule.getSourceType(), k -> new EnumMap<>(ComponentType.class))
+                    .computeIfAbsent(rule.getTargetType(), k -> new ArrayList<>())
+                    .add(compiled);
+            size++;
+        }
+
+        // Замораживаем списки, чтобы набор можно было безопасно читать из разных потоков
+        for (Map<ComponentType, List<CompiledRule>> byTarget : index.values()) {
+            byTarget.replaceAll((type, rules) -> List.copyOf(rules));
+        }
+
+        return new RuleSet(index, size, versionCounter.incrementAndGet());
+    }
+
+    private CompiledRule compile(CompatibilityRule rule) {
+        CompatibilityRule.Operator operator = CompatibilityRule.Operator.fromString(rule.getComparisonOperator());
+        boolean pcie = isPCIeCompatibilityCheck(rule.getSourceProperty(), rule.getTargetProperty());
+        return new CompiledRule(rule, operator, pcie, compilePredicate(operator, pcie, rule.getSourceProperty()));
+    }
+
+    private static ValuePredicate compilePredicate(CompatibilityRule.Operator operator, boolean pcie, String sourceProperty) {
+        switch (operator) {
+            case EQUALS:
+                return SpecComparators::equalTo;
+            case NOT_EQUALS:
+                return SpecComparators::notEqualTo;
+            case GREATER_THAN:
+                return SpecComparators::greaterThan;
+            case LESS_THAN:
+                return SpecComparators::lessThan;
+            case GREATER_THAN_EQUALS:
+                return SpecComparators::greaterOrEqual;
+            case LESS_THAN_EQUALS:
+                return SpecComparators::lessOrEqual;
+            case CONTAINS:
+                // Специальная обработка для PCIe совместимости
+                if (pcie) {
+                    boolean sourceIsDevice = "interface".equals(sourceProperty);
+                    return (source, target) -> SpecComparators.pcieCompatible(source, target, sourceIsDevice);
+                }
+                return SpecComparators::contains;
+            default:
+                return (source, target) -> true;
+        }
+    }
+
+    /**
+     * Проверяет, является ли правило проверкой совместимости PCIe
+     */
+    static boolean isPCIeCompatibilityCheck(String sourceProperty, String targetProperty) {
+        return ("interface".equals(sourceProperty) && "pcie_slots".equals(targetProperty)) ||
+               ("pcie_slots".equals(sourceProperty) && "interface".equals(targetProperty));
+    }
+
+    /**
+     * Извлекает версию PCIe из строки (например, "PCIe 4.0" -> 4.0)
+     */
+    static double extractPCIeVersion(String pcieString) {
+        return ParsedSpecs.extractVersion(pcieString);
+    }
+
+    @FunctionalInterface
+    private interface ValuePredicate {
+        boolean test(SpecValue sourceValue, SpecValue targetValue);
+    }
+
+    /**
+     * Правило совместимости, скомпилированное в готовый предикат
+     */
+    @Getter
+    public static final class CompiledRule {
+        private final CompatibilityRule rule;
+        private final CompatibilityRule.Operator operator;
+        private final String sourceProperty;
+        private final String targetProperty;
+        private final boolean pcieCheck;
+        @Getter(AccessLevel.NONE)
+        private final ValuePredicate predicate;
+
+        private CompiledRule(CompatibilityRule rule, CompatibilityRule.Operator operator,
+                             boolean pcieCheck, ValuePredicate predicate) {
+            this.rule = rule;
+            this.operator = operator;
+            this.sourceProperty = rule.getSourceProperty();
+            this.targetProperty = rule.getTargetProperty();
+            this.pcieCheck = pcieCheck;
+            this.predicate = predicate;
+        }
+
+        /**
+         * Проверяет пару компонентов по правилу
+         * @param source компонент типа sourceType
+         * @param target компонент типа targetType
+         * @return true, если правило выполнено или неприменимо (нет нужных характеристик)
+         */
+        public boolean matches(Product source, Product target) {
+            SpecValue sourceValue = source.getParsedSpecs().get(sourceProperty);
+            SpecValue targetValue = target.getParsedSpecs().get(targetProperty);
+
+            // Если у одного из компонентов нет нужной характеристики, правило не применяется
+            if (!sourceValue.isPresent() || !targetValue.isPresent()) {
+                return true;
+            }
+            return predicate.test(sourceValue, targetValue);
+        }
+
+        public String getDescription() {
+            return rule.getDescription();
+        }
+    }
+
+    /**
+     * Неизменяемый снимок скомпилированных правил
+     */
+    private static final class RuleSet {
+        private final Map<ComponentType, Map<ComponentType, List<CompiledRule>>> index;
+        @Getter
+        private final int size;
+        @Getter
+        private final long version;
+
+        private RuleSet(Map<ComponentType, Map<ComponentType, List<CompiledRule>>> index, int size, long version) {
+            this.index = index;
+            this.size = size;
+            this.version = version;
+        }
+
+        private List<CompiledRule> get(ComponentType sourceType, ComponentType targetType) {
+            Map<ComponentType, List<CompiledRule>> byTarget = index.get(sourceType);
+            if (byTarget == null) {
+                return List.of();
+            }
+            return byTarget.getOrDefault(targetType, List.of());
+        }
+    }
+}
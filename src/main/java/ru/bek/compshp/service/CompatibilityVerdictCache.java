@@ -0,0 +1,224 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.Product;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов проверки совместимости пар товаров.
+ * Ключ - (ID исходного товара, ID целевого товара, версия набора правил).
+ *
+ * Версии товара в ключе нет: записи с измененным товаром удаляются по событию
+ * ProductChangedEvent после коммита, при смене версии правил кэш очищается целиком.
+ * Результат, вычисленный параллельной транзакцией по еще не измененному товару,
+ * может сохраниться после удаления; такие записи живут не дольше TTL.
+ *
+ * Кэш ограничен по размеру (LRU) и по времени жизни записи.
+ * Несохраненные товары (без ID) не кэшируются. CompatibilityMatrix строит строки
+ * совместимости целиком и хранит их сама, поэтому через этот кэш не проходит.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompatibilityVerdictCache {
+
+    private final CompatibilityRuleEngine ruleEngine;
+
+    @Value("${app.compatibility.verdict-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.compatibility.verdict-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final Map<VerdictKey, Verdict> verdicts = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VerdictKey, Verdict> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private long cachedRuleVersion = -1;
+    private long hits;
+    private long misses;
+
+    /**
+     * Возвращает результат проверки совместимости, вычисляя его при отсутствии в кэше
+     * @param source исходный товар
+     * @param target целевой товар
+     * @param check проверка по правилам
+     * @return true, если товары совместимы
+     */
+    public boolean isCompatible(Product source, Product target, BooleanSupplier check) {
+        VerdictKey key = keyOf(source, target);
+        if (key == null) {
+            return check.getAsBoolean();
+        }
+
+        Verdict verdict = lookup(key);
+        if (verdict != null && verdict.compatible != null) {
+            return verdict.compatible;
+        }
+
+        boolean compatible = check.getAsBoolean();
+        store(key, verdict != null ? verdict.withCompatible(compatible) : Verdict.ofCompatible(compatible, expiresAt()));
+        return compatible;
+    }
+
+    /**
+     * Возвращает причину несовместимости, вычисляя ее при отсутствии в кэше
+     * @param source исходный товар
+     * @param target целевой товар
+     * @param reason вычисление причины по правилам
+     * @return причина несовместимости или null, если товары совместимы
+     */
+    public String getReason(Product source, Product target, Supplier<String> reason) {
+        VerdictKey key = keyOf(source, target);
+        if (key == null) {
+            return reason.get();
+        }
+
+        Verdict verdict = lookup(key);
+        if (verdict != null && verdict.reasonResolved) {
+            return verdict.reason;
+        }
+
+        String resolved = reason.get();
+        store(key, verdict != null ? verdict.withReason(resolved) : Verdict.ofReason(resolved, expiresAt()));
+        return resolved;
+    }
+
+    /**
+     * Удаляет результаты проверок с участием измененного товара
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        synchronized (verdicts) {
+            verdicts.keySet().removeIf(key -> key.sourceId.equals(productId) || key.targetId.equals(productId));
+        }
+    }
+
+    private Verdict lookup(VerdictKey key) {
+        synchronized (verdicts) {
+            if (key.ruleVersion != cachedRuleVersion) {
+                // Набор правил изменился - все записи устарели
+                if (!verdicts.isEmpty()) {
+                    log.debug("Кэш совместимости очищен: версия правил {} -> {}, записей {}, попаданий {}, промахов {}",
+                            cachedRuleVersion, key.ruleVersion, verdicts.size(), hits, misses);
+                }
+                verdicts.clear();
+                cachedRuleVersion = key.ruleVersion;
+            }
+
+            Verdict verdict = verdicts.get(key);
+            if (verdict != null && verdict.expiresAt < System.nanoTime()) {
+                verdicts.remove(key);
+                verdict = null;
+            }
+            if (verdict != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return verdict;
+        }
+    }
+
+    private void store(VerdictKey key, Verdict verdict) {
+        synchronized (verdicts) {
+            if (key.ruleVersion == cachedRuleVersion) {
+                verdicts.put(key, verdict);
+            }
+        }
+    }
+
+    private long expiresAt() {
+        return System.nanoTime() + ttlSeconds * 1_000_000_000L;
+    }
+
+    private VerdictKey keyOf(Product source, Product target) {
+        if (source.getId() == null || target.getId() == null) {
+            return null;
+        }
+        return new VerdictKey(source.getId(), target.getId(), ruleEngine.getVersion());
+    }
+
+    /**
+     * Ключ кэша: направленная пара товаров и версия набора правил
+     */
+    private static final class VerdictKey {
+        private final Long sourceId;
+        private final Long targetId;
+        private final long ruleVersion;
+        private final int hash;
+
+        private VerdictKey(Long sourceId, Long targetId, long ruleVersion) {
+            this.sourceId = sourceId;
+            this.targetId = targetId;
+            this.ruleVersion = ruleVersion;
+            this.hash = Objects.hash(sourceId, targetId, ruleVersion);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof VerdictKey other)) {
+                return false;
+            }
+            return ruleVersion == other.ruleVersion
+                    && sourceId.equals(other.sourceId)
+                    && targetId.equals(other.targetId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Закэшированный результат: совместимость и/или причина несовместимости
+     */
+    private static final class Verdict {
+        private final Boolean compatible;
+        private final String reason;
+        private final boolean reasonResolved;
+        private final long expiresAt;
+
+        private Verdict(Boolean compatible, String reason, boolean reasonResolved, long expiresAt) {
+            this.compatible = compatible;
+            this.reason = reason;
+            this.reasonResolved = reasonResolved;
+            this.expiresAt = expiresAt;
+        }
+
+        private static Verdict ofCompatible(boolean compatible, long expiresAt) {
+            return new Verdict(compatible, null, false, expiresAt);
+        }
+
+        private static Verdict ofReason(String reason, long expiresAt) {
+            return new Verdict(null, reason, true, expiresAt);
+        }
+
+        private Verdict withCompatible(boolean value) {
+            return new Verdict(value, reason, reasonResolved, expiresAt);
+        }
+
+        private Verdict withReason(String value) {
+            return new Verdict(compatible, value, true, expiresAt);
+        }
+    }
+}
@@ -4,6 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.bek.compshp.dto.CompatibilityBatchRequest;
+import ru.bek.compshp.dto.CompatibilityBatchResult;
+import ru.bek.compshp.dto.CompatibilityBatchResult.ConfigurationVerdict;
+import ru.bek.compshp.dto.CompatibilityBatchResult.PairVerdict;
 import ru.bek.compshp.exception.ResourceNotFoundException;
 import ru.bek.compshp.model.CompatibilityRule;
 import ru.bek.compshp.model.ConfigComponent;
@@ -13,8 +17,6 @@ import ru.bek.compshp.repository.CompatibilityRuleRepository;
 import ru.bek.compshp.repository.ProductRepository;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +31,10 @@ public class ComponentCompatibilityService {
     
     private final ProductRepository productRepository;
     private final CompatibilityRuleRepository compatibilityRuleRepository;
+    private final CompatibilityRuleEngine ruleEngine;
+    private final CompatibilityMatrix compatibilityMatrix;
+    private final CompatibilityVerdictCache verdictCache;
+    private final CompatibilityRuleAnalyzer ruleAnalyzer;
     
     /**
      * Получает продукт по его ID
@@ -48,117 +54,7 @@ public class ComponentCompatibilityService {
      * @return true, если компоненты совместимы
      */
     public boolean checkComponentsCompatibility(Product source, Product target) {
-        // Если оба компонента - периферийные устройства, считаем их совместимыми
-        if (source.isPeripheral() && target.isPeripheral()) {
-            return true;
-        }
-        
-        ComponentType sourceType = source.getComponentType();
-        ComponentType targetType = target.getComponentType();
-        
-        // Если компоненты одного типа, они не могут быть совместимы для одной сборки
-        if (sourceType == targetType) {
-            return false;
-        }
-        
-        // Ищем правила совместимости для этих типов компонентов
-        List<CompatibilityRule> rules = compatibilityRuleRepository
-                .findBySourceTypeAndTargetType(sourceType, targetType);
-        
-        // Если правил нет, считаем, что компоненты совместимы
-        if (rules.isEmpty()) {
-            return true;
-        }
-        
-        // Проверяем каждое правило
-        for (CompatibilityRule rule : rules) {
-            String sourceProperty = rule.getSourceProperty();
-            String targetProperty = rule.getTargetProperty();
-            
-            String sourceValue = source.getSpec(sourceProperty);
-            String targetValue = target.getSpec(targetProperty);
-            
-            // Если у одного из компонентов нет нужной характеристики, пропускаем правило
-            if (sourceValue.isEmpty() || targetValue.isEmpty()) {
-                continue;
-            }
-            
-            // Проверяем соответствие правилу
-            CompatibilityRule.Operator operator = CompatibilityRule.Operator.fromString(rule.getComparisonOperator());
-            switch (operator) {
-                case EQUALS:
-                    if (!sourceValue.equals(targetValue)) {
-                        return false;
-                    }
-                    break;
-                case NOT_EQUALS:
-                    if (sourceValue.equals(targetValue)) {
-                        return false;
-                    }
-                    break;
-                case GREATER_THAN:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum <= targetNum) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case LESS_THAN:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum >= targetNum) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case LESS_THAN_EQUALS:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum > targetNum) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case GREATER_THAN_EQUALS:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum < targetNum) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case CONTAINS:
-                    // Специальная обработка для PCIe совместимости
-                    if (isPCIeCompatibilityCheck(rule.getSourceProperty(), rule.getTargetProperty())) {
-                        if (!checkPCIeCompatibility(sourceValue, targetValue, rule.getSourceProperty())) {
-                            return false;
-                        }
-                    } else if (!sourceValue.contains(targetValue)) {
-                        return false;
-                    }
-                    break;
-                default:
-                    // Убираем сложные операторы BALANCED и CONDITION
-                    // Оставляем только базовые операторы сравнения
-                    break;
-            }
-        }
-        
-        // Если все правила прошли проверку, компоненты совместимы
-        return true;
+        return verdictCache.isCompatible(source, target, () -> ruleEngine.check(source, target));
     }
     
     /**
@@ -168,6 +64,13 @@ public class ComponentCompatibilityService {
      * @return строка с объяснением причины несовместимости или null, если компоненты совместимы
      */
     public String getIncompatibilityReason(Product source, Product target) {
+        return verdictCache.getReason(source, target, () -> resolveIncompatibilityReason(source, target));
+    }
+    
+    /**
+     * Вычисляет причину несовместимости по правилам
+     */
+    private String resolveIncompatibilityReason(Product source, Product target) {
         ComponentType sourceType = source.getComponentType();
         ComponentType targetType = target.getComponentType();
         
@@ -176,122 +79,139 @@ public class ComponentCompatibilityService {
             return "Компоненты одного типа не могут быть использованы в одной конфигурации";
         }
         
-        // Ищем правила совместимости для этих типов компонентов
-        List<CompatibilityRule> rules = compatibilityRuleRepository
-                .findBySourceTypeAndTargetType(sourceType, targetType);
+        // Проверяем каждое правило для этих типов компонентов
+        for (CompatibilityRuleEngine.CompiledRule rule : ruleEngine.getRules(sourceType, targetType)) {
+            if (!rule.matches(source, target)) {
+                return createUserFriendlyErrorMessage(rule.getSourceProperty(), rule.getTargetProperty(),
+                        source.getSpec(rule.getSourceProperty()), target.getSpec(rule.getTargetProperty()),
+                        source, target, rule.getOperator());
+            }
+        }
         
-        // Проверяем каждое правило
-        for (CompatibilityRule rule : rules) {
-            String sourceProperty = rule.getSourceProperty();
-            String targetProperty = rule.getTargetProperty();
-            
-            String sourceValue = source.getSpec(sourceProperty);
-            String targetValue = target.getSpec(targetProperty);
-            
-            // Если у одного из компонентов нет нужной характеристики, пропускаем правило
-            if (sourceValue.isEmpty() || targetValue.isEmpty()) {
-                continue;
+        // Если все правила прошли проверку, компоненты совместимы
+        return null;
+    }
+    
+    /**
+     * Загружает товары по списку ID одним запросом
+     * @param ids ID товаров
+     * @return товары, индексированные по ID
+     * @throws ResourceNotFoundException если какой-либо товар не найден
+     */
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Long, Product> products = new HashMap<>(distinctIds.size() * 2);
+        for (Product product : productRepository.findAllById(distinctIds)) {
+            products.put(product.getId(), product);
+        }
+        for (Long id : distinctIds) {
+            if (!products.containsKey(id)) {
+                throw new ResourceNotFoundException("Product", "id", id);
             }
-            
-            // Проверяем соответствие правилу
-            CompatibilityRule.Operator operator = CompatibilityRule.Operator.fromString(rule.getComparisonOperator());
-            switch (operator) {
-                case EQUALS:
-                    if (!sourceValue.equals(targetValue)) {
-                        return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                sourceValue, targetValue, source, target, operator);
-                    }
-                    break;
-                case NOT_EQUALS:
-                    if (sourceValue.equals(targetValue)) {
-                        return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                sourceValue, targetValue, source, target, operator);
-                    }
-                    break;
-                case GREATER_THAN:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum <= targetNum) {
-                            return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                    sourceValue, targetValue, source, target, operator);
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case LESS_THAN:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum >= targetNum) {
-                            return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                    sourceValue, targetValue, source, target, operator);
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case LESS_THAN_EQUALS:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum > targetNum) {
-                            return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                    sourceValue, targetValue, source, target, operator);
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case GREATER_THAN_EQUALS:
-                    try {
-                        double sourceNum = Double.parseDouble(sourceValue);
-                        double targetNum = Double.parseDouble(targetValue);
-                        if (sourceNum < targetNum) {
-                            return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                    sourceValue, targetValue, source, target, operator);
-                        }
-                    } catch (NumberFormatException e) {
-                        // Если не числа, пропускаем правило
-                    }
-                    break;
-                case CONTAINS:
-                    // Специальная обработка для PCIe совместимости
-                    if (isPCIeCompatibilityCheck(rule.getSourceProperty(), rule.getTargetProperty())) {
-                        if (!checkPCIeCompatibility(sourceValue, targetValue, rule.getSourceProperty())) {
-                            return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                    sourceValue, targetValue, source, target, operator);
+        }
+        return products;
+    }
+    
+    /**
+     * Пакетно проверяет совместимость одной или нескольких конфигураций.
+     * Все товары загружаются одним запросом, вердикт для каждой пары вычисляется один раз.
+     * @param request запрос с ID товаров и/или вариантами конфигураций
+     * @return матрицы попарной совместимости по каждой конфигурации
+     */
+    public CompatibilityBatchResult checkBatchCompatibility(CompatibilityBatchRequest request) {
+        List<List<Long>> configurations = new ArrayList<>();
+        if (request.getProductIds() != null && !request.getProductIds().isEmpty()) {
+            configurations.add(request.getProductIds());
+        }
+        if (request.getConfigurations() != null) {
+            configurations.addAll(request.getConfigurations());
+        }
+        
+        Map<Long, Product> products = getProductsByIds(configurations.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList()));
+        
+        Map<Long, Map<Long, Boolean>> verdicts = new HashMap<>();
+        List<ConfigurationVerdict> results = new ArrayList<>(configurations.size());
+        for (List<Long> productIds : configurations) {
+            List<Product> configuration = productIds.stream()
+                    .map(products::get)
+                    .collect(Collectors.toList());
+            results.add(evaluateConfiguration(configuration, request.isIncludeReasons(), verdicts));
+        }
+        
+        return CompatibilityBatchResult.builder()
+                .configurations(results)
+                .build();
+    }
+    
+    /**
+     * Проверяет попарную совместимость набора товаров
+     * @param products товары конфигурации
+     * @param includeReasons формировать ли причины несовместимости
+     * @return матрица попарной совместимости
+     */
+    public ConfigurationVerdict checkProductsCompatibility(List<Product> products, boolean includeReasons) {
+        return evaluateConfiguration(products, includeReasons, new HashMap<>());
+    }
+    
+    private ConfigurationVerdict evaluateConfiguration(List<Product> products, boolean includeReasons,
+                                                       Map<Long, Map<Long, Boolean>> verdicts) {
+        int size = products.size();
+        Boolean[][] matrix = new Boolean[size][size];
+        List<PairVerdict> incompatiblePairs = new ArrayList<>();
+        
+        for (int i = 0; i < size; i++) {
+            matrix[i][i] = true;
+            for (int j = i + 1; j < size; j++) {
+                Product first = products.get(i);
+                Product second = products.get(j);
+                boolean compatible = pairVerdict(first, second, verdicts);
+                matrix[i][j] = compatible;
+                matrix[j][i] = compatible;
+                
+                if (!compatible) {
+                    String reason = null;
+                    if (includeReasons) {
+                        reason = getIncompatibilityReason(first, second);
+                        if (reason == null) {
+                            reason = getIncompatibilityReason(second, first);
                         }
-                    } else if (!sourceValue.contains(targetValue)) {
-                        return createUserFriendlyErrorMessage(sourceProperty, targetProperty, 
-                                sourceValue, targetValue, source, target, operator);
                     }
-                    break;
-                default:
-                    break;
+                    incompatiblePairs.add(new PairVerdict(first.getId(), second.getId(), reason));
+                }
             }
         }
         
-        // Также проверяем в обратном направлении
-        rules = compatibilityRuleRepository.findBySourceTypeAndTargetType(targetType, sourceType);
-        for (CompatibilityRule rule : rules) {
-            String sourceProperty = rule.getSourceProperty();
-            String targetProperty = rule.getTargetProperty();
-            
-            String targetValue = target.getSpec(sourceProperty); // Меняем местами source и target
-            String sourceValue = source.getSpec(targetProperty);
-            
-            if (sourceValue.isEmpty() || targetValue.isEmpty()) {
-                continue;
-            }
-            
-            // Проверка правил...
-            // (для краткости повторный код опущен)
+        List<List<Boolean>> rows = new ArrayList<>(size);
+        for (Boolean[] row : matrix) {
+            rows.add(Arrays.asList(row));
         }
         
-        // Если все правила прошли проверку, компоненты совместимы
-        return null;
+        return ConfigurationVerdict.builder()
+                .productIds(products.stream().map(Product::getId).collect(Collectors.toList()))
+                .compatible(incompatiblePairs.isEmpty())
+                .matrix(rows)
+                .incompatiblePairs(incompatiblePairs)
+                .build();
+    }
+    
+    private boolean pairVerdict(Product first, Product second, Map<Long, Map<Long, Boolean>> verdicts) {
+        if (first.getId() == null || second.getId() == null) {
+            return isPairCompatible(first, second);
+        }
+        // Совместимость пары симметрична, поэтому ключ упорядочен по ID
+        Long low = Math.min(first.getId(), second.getId());
+        Long high = Math.max(first.getId(), second.getId());
+        return verdicts.computeIfAbsent(low, id -> new HashMap<>())
+                .computeIfAbsent(high, id -> isPairCompatible(first, second));
+    }
+    
+    /**
+     * Совместимость пары в любом направлении через кэш вердиктов
+     */
+    private boolean isPairCompatible(Product first, Product second) {
+        return checkComponentsCompatibility(first, second) || checkComponentsCompatibility(second, first);
     }
     
     /**
@@ -367,96 +287,16 @@ public class ComponentCompatibilityService {
                 continue;
             }
             
-            // Проверяем правила совместимости
-            List<CompatibilityRule> rules = compatibilityRuleRepository
-                    .findBySourceTypeAndTargetType(product.getComponentType(), existingProduct.getComponentType());
-            
-            rules.addAll(compatibilityRuleRepository
-                    .findBySourceTypeAndTargetType(existingProduct.getComponentType(), product.getComponentType()));
-            
-            for (CompatibilityRule rule : rules) {
-                Product source, target;
-                if (rule.getSourceType() == product.getComponentType()) {
-                    source = product;
-                    target = existingProduct;
-                } else {
-                    source = existingProduct;
-                    target = product;
-                }
-                
-                String sourceValue = source.getSpec(rule.getSourceProperty());
-                String targetValue = target.getSpec(rule.getTargetProperty());
-                
-                if (sourceValue.isEmpty() || targetValue.isEmpty()) {
-                    continue;
-                }
-                
-                boolean isCompatible = true;
-                CompatibilityRule.Operator operator = CompatibilityRule.Operator.fromString(rule.getComparisonOperator());
-                switch (operator) {
-                    case EQUALS: {
-                        isCompatible = sourceValue.equals(targetValue);
-                        break;
-                    }
-                    case NOT_EQUALS: {
-                        isCompatible = !sourceValue.equals(targetValue);
-                        break;
-                    }
-                    case GREATER_THAN: {
-                        try {
-                            double sourceNum = Double.parseDouble(sourceValue);
-                            double targetNum = Double.parseDouble(targetValue);
-                            isCompatible = sourceNum > targetNum;
-                        } catch (NumberFormatException e) {
-                            // Пропускаем
-                        }
-                        break;
-                    }
-                    case LESS_THAN: {
-                        try {
-                            double sourceNum = Double.parseDouble(sourceValue);
-                            double targetNum = Double.parseDouble(targetValue);
-                            isCompatible = sourceNum < targetNum;
-                        } catch (NumberFormatException e) {
-                            // Пропускаем
-                        }
-                        break;
-                    }
-                    case LESS_THAN_EQUALS: {
-                        try {
-                            double sourceNum = Double.parseDouble(sourceValue);
-                            double targetNum = Double.parseDouble(targetValue);
-                            isCompatible = sourceNum <= targetNum;
-                        } catch (NumberFormatException e) {
-                            // Пропускаем
-                        }
-                        break;
-                    }
-                    case GREATER_THAN_EQUALS: {
-                        try {
-                            double sourceNum = Double.parseDouble(sourceValue);
-                            double targetNum = Double.parseDouble(targetValue);
-                            isCompatible = sourceNum >= targetNum;
-                        } catch (NumberFormatException e) {
-                            // Пропускаем
-                        }
-                        break;
-                    }
-                    case CONTAINS: {
-                        // Специальная обработка для PCIe совместимости
-                        if (isPCIeCompatibilityCheck(rule.getSourceProperty(), rule.getTargetProperty())) {
-                            isCompatible = checkPCIeCompatibility(sourceValue, targetValue, rule.getSourceProperty());
-                        } else {
-                            isCompatible = sourceValue.contains(targetValue);
-                        }
-                        break;
-                    }
-                    default: {
-                        break;
-                    }
+            // Проверяем правила совместимости в обоих направлениях
+            for (CompatibilityRuleEngine.CompiledRule rule : ruleEngine.getRules(
+                    product.getComponentType(), existingProduct.getComponentType())) {
+                if (!rule.matches(product, existingProduct)) {
+                    result.put(existingProduct, rule.getDescription());
                 }
-                
-                if (!isCompatible) {
+            }
+            for (CompatibilityRuleEngine.CompiledRule rule : ruleEngine.getRules(
+                    existingProduct.getComponentType(), product.getComponentType())) {
+                if (!rule.matches(existingProduct, product)) {
                     result.put(existingProduct, rule.getDescription());
                 }
             }
@@ -472,12 +312,7 @@ public class ComponentCompatibilityService {
      * @return список совместимых компонентов
      */
     public List<Product> getCompatibleComponents(Product source, ComponentType targetType) {
-        List<Product> allComponentsOfType = productRepository.findByComponentType(targetType);
-        
-        return allComponentsOfType.stream()
-                .filter(product -> checkComponentsCompatibility(source, product) 
-                        || checkComponentsCompatibility(product, source))
-                .collect(Collectors.toList());
+        return compatibilityMatrix.findCompatible(List.of(source), targetType);
     }
     
     /**
@@ -486,62 +321,7 @@ public class ComponentCompatibilityService {
      * @return список сообщений о конфликтах или пустой список, если конфликтов нет
      */
     public List<String> checkRuleConflicts(CompatibilityRule rule) {
-        List<String> conflicts = new ArrayList<>();
-        
-        // Проверяем, что типы компонентов разные
-        if (rule.getSourceType() == rule.getTargetType()) {
-            conflicts.add("Правило не может применяться к компонентам одного типа");
-        }
-        
-        // Проверяем на конфликты с существующими правилами
-        List<CompatibilityRule> existingRules = compatibilityRuleRepository
-                .findBySourceTypeAndTargetType(rule.getSourceType(), rule.getTargetType());
-        
-        for (CompatibilityRule existingRule : existingRules) {
-            // Пропускаем, если это то же самое правило (при обновлении)
-            if (rule.getId() != null && rule.getId().equals(existingRule.getId())) {
-                continue;
-            }
-            
-            // Проверяем на конфликт правил с одинаковыми полями
-            if (existingRule.getSourceProperty().equals(rule.getSourceProperty()) &&
-                existingRule.getTargetProperty().equals(rule.getTargetProperty())) {
-                // Если оператор тот же или противоположный
-                if (isConflictingOperator(existingRule.getComparisonOperator(), rule.getComparisonOperator())) {
-                    conflicts.add("Конфликт с существующим правилом: " + existingRule.getDescription());
-                }
-            }
-        }
-        
-        return conflicts;
-    }
-    
-    /**
-     * Проверяет, конфликтуют ли операторы
-     * @param op1 первый оператор
-     * @param op2 второй оператор
-     * @return true, если операторы конфликтуют
-     */
-    private boolean isConflictingOperator(String op1Str, String op2Str) {
-        CompatibilityRule.Operator op1 = CompatibilityRule.Operator.fromString(op1Str);
-        CompatibilityRule.Operator op2 = CompatibilityRule.Operator.fromString(op2Str);
-        
-        // Простая проверка на конфликт - если операторы одинаковые или противоположные
-        if (op1 == op2) {
-            return true;
-        }
-        
-        // Проверка противоположных операторов
-        if ((op1 == CompatibilityRule.Operator.EQUALS && op2 == CompatibilityRule.Operator.NOT_EQUALS) ||
-            (op1 == CompatibilityRule.Operator.NOT_EQUALS && op2 == CompatibilityRule.Operator.EQUALS) ||
-            (op1 == CompatibilityRule.Operator.GREATER_THAN && op2 == CompatibilityRule.Operator.LESS_THAN_EQUALS) ||
-            (op1 == CompatibilityRule.Operator.LESS_THAN_EQUALS && op2 == CompatibilityRule.Operator.GREATER_THAN) ||
-            (op1 == CompatibilityRule.Operator.LESS_THAN && op2 == CompatibilityRule.Operator.GREATER_THAN_EQUALS) ||
-            (op1 == CompatibilityRule.Operator.GREATER_THAN_EQUALS && op2 == CompatibilityRule.Operator.LESS_THAN)) {
-            return true;
-        }
-        
-        return false;
+        return ruleAnalyzer.findConflicts(rule);
     }
     
     /**
@@ -551,7 +331,9 @@ public class ComponentCompatibilityService {
      */
     @Transactional
     public CompatibilityRule saveCompatibilityRule(CompatibilityRule rule) {
-        return compatibilityRuleRepository.save(rule);
+        CompatibilityRule saved = compatibilityRuleRepository.save(rule);
+        ruleEngine.reloadAfterCommit();
+        return saved;
     }
     
     /**
@@ -653,9 +435,9 @@ public class ComponentCompatibilityService {
                     return String.format("Корпус не поддерживает необходимые отсеки: %s требует отсеки %s, но %s поддерживает только %s", 
                             targetComponentName, targetValue, sourceComponentName, sourceValue);
                 }
-                if (isPCIeCompatibilityCheck(sourceProperty, targetProperty)) {
-                    double sourceVersion = extractPCIeVersion(sourceValue);
-                    double targetVersion = extractPCIeVersion(targetValue);
+                if (CompatibilityRuleEngine.isPCIeCompatibilityCheck(sourceProperty, targetProperty)) {
+                    double sourceVersion = CompatibilityRuleEngine.extractPCIeVersion(sourceValue);
+                    double targetVersion = CompatibilityRuleEngine.extractPCIeVersion(targetValue);
                     if ("interface".equals(sourceProperty)) {
                         return String.format("Несовместимые версии PCIe: %s требует PCIe %s, но %s поддерживает только PCIe %s", 
                                 sourceComponentName, formatPCIeVersion(sourceVersion), targetComponentName, formatPCIeVersion(targetVersion));
@@ -726,61 +508,6 @@ public class ComponentCompatibilityService {
         }
     }
     
-    /**
-     * Проверяет, является ли правило проверкой совместимости PCIe
-     */
-    private boolean isPCIeCompatibilityCheck(String sourceProperty, String targetProperty) {
-        return ("interface".equals(sourceProperty) && "pcie_slots".equals(targetProperty)) ||
-               ("pcie_slots".equals(sourceProperty) && "interface".equals(targetProperty));
-    }
-    
-    /**
-     * Проверяет совместимость PCIe версий с учетом обратной совместимости
-     * PCIe 5.0 > 4.0 > 3.0 > 2.0 > 1.0
-     */
-    private boolean checkPCIeCompatibility(String sourceValue, String targetValue, String sourceProperty) {
-        // Извлекаем версии PCIe из строк
-        double sourceVersion = extractPCIeVersion(sourceValue);
-        double targetVersion = extractPCIeVersion(targetValue);
-        
-        if (sourceVersion == -1 || targetVersion == -1) {
-            // Если не удалось извлечь версии, используем обычную проверку на содержание
-            return sourceValue.contains(targetValue) || targetValue.contains(sourceValue);
-        }
-        
-        // Если источник - видеокарта (interface), а цель - материнская плата (pcie_slots)
-        if ("interface".equals(sourceProperty)) {
-            // Видеокарта может работать на материнской плате с равной или более высокой версией PCIe
-            return targetVersion >= sourceVersion;
-        } else {
-            // Материнская плата может поддерживать видеокарту с равной или более низкой версией PCIe
-            return sourceVersion >= targetVersion;
-        }
-    }
-    
-    /**
-     * Извлекает версию PCIe из строки (например, "PCIe 4.0" -> 4.0)
-     */
-    private double extractPCIeVersion(String pcieString) {
-        if (pcieString == null || pcieString.isEmpty()) {
-            return -1;
-        }
-        
-        // Ищем числа в строке (например, "PCIe 4.0", "PCI Express 3.0", "4.0")
-        Pattern pattern = Pattern.compile("(\\d+\\.\\d+|\\d+)");
-        Matcher matcher = pattern.matcher(pcieString);
-        
-        if (matcher.find()) {
-            try {
-                return Double.parseDouble(matcher.group(1));
-            } catch (NumberFormatException e) {
-                return -1;
-            }
-        }
-        
-        return -1;
-    }
-    
     /**
      * Форматирует версию PCIe в читаемый формат
      */
@@ -0,0 +1,153 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подбор рекомендуемых компонентов для недостающих типов конфигурации.
+ *
+ * Каждый тип обрабатывается отдельной задачей в общем пуле конфигуратора по снимку
+ * каталога из матрицы совместимости (без запросов к БД); кандидаты ранжируются
+ * по соотношению производительности и цены. Типы, не уложившиеся в бюджет времени,
+ * в ответ не попадают. Итоговые товары загружаются одним запросом.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComponentRecommendationService {
+
+    /**
+     * Порядок кандидатов: сначала в наличии, затем лучшее соотношение
+     * производительность/цена, затем дешевле
+     */
+    private static final Comparator<Product> RANKING = Comparator
+            .comparing((Product product) -> product.getStock() == null || product.getStock() <= 0)
+            .thenComparing(ComponentRecommendationService::valueScore, Comparator.reverseOrder())
+            .thenComparing(Product::getPrice, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Product::getId);
+
+    private final CompatibilityMatrix compatibilityMatrix;
+    private final ProductRepository productRepository;
+    private final ExecutorService configuratorExecutor;
+
+    @Value("${app.configurator.recommendations.per-type:10}")
+    private int perTypeLimit;
+
+    @Value("${app.configurator.recommendations.time-budget-ms:300}")
+    private long timeBudgetMs;
+
+    /**
+     * Подбирает рекомендуемые товары для каждого из типов
+     * @param selected товары, уже выбранные в конфигурации
+     * @param types типы, для которых нужны рекомендации
+     * @return рекомендации по типам в порядке объявления типов
+     */
+    public Map<ComponentType, List<Product>> recommend(Collection<Product> selected, Collection<ComponentType> types) {
+        Map<ComponentType, List<Product>> result = new EnumMap<>(ComponentType.class);
+        if (types.isEmpty()) {
+            return result;
+        }
+
+        List<ComponentType> order = new ArrayList<>(EnumSet.copyOf(types));
+        List<Callable<List<Long>>> tasks = new ArrayList<>(order.size());
+        for (ComponentType type : order) {
+            tasks.add(() -> rank(selected, type));
+        }
+
+        long start = System.nanoTime();
+        List<Future<List<Long>>> futures;
+        try {
+            futures = configuratorExecutor.invokeAll(tasks, timeBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result;
+        }
+
+        Map<ComponentType, List<Long>> rankedIds = new EnumMap<>(ComponentType.class);
+        Set<Long> allIds = new HashSet<>();
+        for (int i = 0; i < order.size(); i++) {
+            ComponentType type = order.get(i);
+            try {
+                List<Long> ids = futures.get(i).get();
+                rankedIds.put(type, ids);
+                allIds.addAll(ids);
+            } catch (CancellationException e) {
+                log.warn("Рекомендации для {} не уложились в {} мс", type, timeBudgetMs);
+            } catch (ExecutionException e) {
+                log.error("Ошибка при подборе рекомендаций для {}: {}", type, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+        }
+
+        // Отобранные товары загружаются в текущем контексте одним запросом
+        Map<Long, Product> products = new HashMap<>(allIds.size() * 2);
+        if (!allIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(allIds)) {
+                products.put(product.getId(), product);
+            }
+        }
+        rankedIds.forEach((type, ids) -> {
+            List<Product> recommended = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Product product = products.get(id);
+                if (product != null) {
+                    recommended.add(product);
+                }
+            }
+            result.put(type, recommended);
+        });
+
+        log.debug("Рекомендации по {} типам подобраны за {} мс", rankedIds.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * Отбирает лучших кандидатов одного типа по снимку каталога
+     * @return ID товаров в порядке ранжирования
+     */
+    private List<Long> rank(Collection<Product> selected, ComponentType type) {
+        List<Product> candidates = new ArrayList<>();
+        for (Product product : compatibilityMatrix.findCompatibleSnapshot(selected, type)) {
+            if (!Boolean.FALSE.equals(product.getIsActive())) {
+                candidates.add(product);
+            }
+        }
+        candidates.sort(RANKING);
+
+        int limit = Math.min(perTypeLimit, candidates.size());
+        List<Long> ids = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            ids.add(candidates.get(i).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Производительность на единицу цены; 0, если производительность или цена неизвестны
+     */
+    private static double valueScore(Product product) {
+        double performance = product.getParsedSpecs().number("performance");
+        BigDecimal price = product.getPrice();
+        if (Double.isNaN(performance) || price == null || price.signum() <= 0) {
+            return 0;
+        }
+        return performance / price.doubleValue();
+    }
+}
@@ -0,0 +1,456 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bek.compshp.model.ConfigComponent;
+import ru.bek.compshp.model.ConfigComponentId;
+import ru.bek.compshp.model.PCConfiguration;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Автоматический подбор сборок ПК под бюджет.
+ *
+ * Перебирает кандидатов по слотам (CPU, MB, RAM, COOLER, GPU, CASE, STORAGE, PSU)
+ * методом ветвей и границ: ветка отсекается, если компонент несовместим с уже выбранными,
+ * если минимальная стоимость оставшихся слотов выходит за бюджет или если даже
+ * максимально возможная производительность не попадает в текущий топ.
+ * Поиск распараллеливается по процессорам и ограничен по времени.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfigurationAutoBuilder {
+
+    /**
+     * Порядок заполнения слотов: сначала самые ограничивающие компоненты, БП - последним,
+     * когда известно итоговое потребление
+     */
+    private static final List<ComponentType> BUILD_ORDER = List.of(
+            ComponentType.CPU,
+            ComponentType.MB,
+            ComponentType.RAM,
+            ComponentType.COOLER,
+            ComponentType.GPU,
+            ComponentType.CASE,
+            ComponentType.STORAGE,
+            ComponentType.PSU
+    );
+
+    private final ProductRepository productRepository;
+    private final CompatibilityRuleEngine ruleEngine;
+    private final PowerCalculator powerCalculator;
+    private final ExecutorService configuratorExecutor;
+
+    @Value("${app.configurator.builder.top-k:5}")
+    private int topK;
+
+    @Value("${app.configurator.builder.candidates-per-type:16}")
+    private int candidatesPerType;
+
+    @Value("${app.configurator.builder.time-budget-ms:200}")
+    private long timeBudgetMs;
+
+    /**
+     * Подбирает лучшие по производительности совместимые сборки в рамках бюджета
+     * @param purpose назначение (для игровых сборок видеокарта обязательна)
+     * @param budget бюджет
+     * @return сборки, отсортированные по убыванию производительности (не сохранены в БД)
+     */
+    public List<PCConfiguration> build(String purpose, double budget) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+
+        List<Product> catalog = productRepository.findComponentsInBudget(BUILD_ORDER, BigDecimal.valueOf(budget));
+        Map<ComponentType, List<Product>> byType = catalog.stream()
+                .filter(p -> p.getPrice() != null)
+                .collect(Collectors.groupingBy(Product::getComponentType,
+                        () -> new EnumMap<>(ComponentType.class), Collectors.toList()));
+
+        SearchSpace space = createSearchSpace(byType, isGpuRequired(purpose));
+        if (space == null) {
+            log.info("Автоподбор '{}' на {}: недостаточно компонентов в каталоге", purpose, budget);
+            return List.of();
+        }
+
+        TopBuilds top = new TopBuilds(topK);
+        Slot first = space.slots[0];
+        List<Future<?>> futures = new ArrayList<>(first.size());
+        for (int i = 0; i < first.size(); i++) {
+            int candidate = i;
+            futures.add(configuratorExecutor.submit(() -> {
+                Search search = new Search(space, top, budget, deadline);
+                search.start(candidate);
+            }));
+        }
+
+        boolean timedOut = false;
+        for (Future<?> future : futures) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                if (remaining <= 0) {
+                    timedOut = true;
+                    future.cancel(true);
+                } else {
+                    future.get(remaining, TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException e) {
+                timedOut = true;
+                future.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.warn("Ошибка при подборе сборки: {}", e.getCause().getMessage());
+            }
+        }
+
+        List<Build> builds = top.snapshot();
+        log.info("Автоподбор '{}' на {}: {} сборок за {} мс{}", purpose, budget, builds.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                timedOut ? " (поиск остановлен по времени)" : "");
+
+        List<PCConfiguration> result = new ArrayList<>(builds.size());
+        for (int i = 0; i < builds.size(); i++) {
+            result.add(toConfiguration(builds.get(i), space, purpose, i + 1));
+        }
+        return result;
+    }
+
+    private boolean isGpuRequired(String purpose) {
+        if (purpose == null) {
+            return false;
+        }
+        String normalized = purpose.toLowerCase(Locale.ROOT);
+        return normalized.contains("gam") || normalized.contains("игр");
+    }
+
+    /**
+     * Отбирает кандидатов по слотам и заранее вычисляет попарную совместимость
+     * @return пространство поиска или null, если какой-то обязательный слот пуст
+     */
+    private SearchSpace createSearchSpace(Map<ComponentType, List<Product>> byType, boolean gpuRequired) {
+        Slot[] slots = new Slot[BUILD_ORDER.size()];
+        List<Product> all = new ArrayList<>();
+
+        for (int s = 0; s < slots.length; s++) {
+            ComponentType type = BUILD_ORDER.get(s);
+            boolean optional = type == ComponentType.COOLER || (type == ComponentType.GPU && !gpuRequired);
+            List<Product> candidates = selectCandidates(type, byType.getOrDefault(type, List.of()));
+            if (candidates.isEmpty() && !optional) {
+                return null;
+            }
+            slots[s] = new Slot(type, optional, all.size(), candidates, powerCalculator);
+            all.addAll(candidates);
+        }
+
+        // Попарная совместимость кандидатов разных слотов
+        int total = all.size();
+        boolean[][] compatible = new boolean[total][total];
+        for (int a = 0; a < slots.length; a++) {
+            for (int b = a + 1; b < slots.length; b++) {
+                boolean hasRules = ruleEngine.hasRulesBetween(slots[a].type, slots[b].type);
+                for (int i = 0; i < slots[a].size(); i++) {
+                    int gi = slots[a].offset + i;
+                    for (int j = 0; j < slots[b].size(); j++) {
+                        int gj = slots[b].offset + j;
+                        boolean ok = !hasRules || ruleEngine.isPairCompatible(all.get(gi), all.get(gj));
+                        compatible[gi][gj] = ok;
+                        compatible[gj][gi] = ok;
+                    }
+                }
+            }
+        }
+
+        return new SearchSpace(slots, all, compatible);
+    }
+
+    /**
+     * Отбирает ограниченное число кандидатов: самые производительные и самые дешевые.
+     * Для БП - самые дешевые модели каждой мощности, равномерно по диапазону мощностей.
+     */
+    private List<Product> selectCandidates(ComponentType type, List<Product> products) {
+        if (products.size() <= candidatesPerType) {
+            return products;
+        }
+
+        if (type == ComponentType.PSU) {
+            Map<Integer, Product> cheapestByWattage = new TreeMap<>();
+            for (Product psu : products) {
+                int wattage = powerCalculator.getPsuWattage(psu);
+                if (wattage > 0) {
+                    cheapestByWattage.merge(wattage, psu,
+                            (a, b) -> a.getPrice().compareTo(b.getPrice()) <= 0 ? a : b);
+                }
+            }
+            List<Product> distinct = new ArrayList<>(cheapestByWattage.values());
+            if (distinct.size() <= candidatesPerType) {
+                return distinct;
+            }
+            List<Product> spread = new ArrayList<>(candidatesPerType);
+            for (int i = 0; i < candidatesPerType; i++) {
+                spread.add(distinct.get((int) ((long) i * (distinct.size() - 1) / (candidatesPerType - 1))));
+            }
+            return spread;
+        }
+
+        Comparator<Product> byPrice = Comparator.comparing(Product::getPrice);
+        Comparator<Product> byPerformance = Comparator.comparingDouble(ConfigurationAutoBuilder::performance)
+                .reversed()
+                .thenComparing(byPrice);
+
+        Set<Product> selected = new LinkedHashSet<>();
+        int half = Math.max(1, candidatesPerType / 2);
+        products.stream().sorted(byPerformance).limit(half).forEach(selected::add);
+        products.stream().sorted(byPrice)
+                .filter(p -> !selected.contains(p))
+                .limit(candidatesPerType - selected.size())
+                .forEach(selected::add);
+        return new ArrayList<>(selected);
+    }
+
+    private static double performance(Product product) {
+        double performance = product.getParsedSpecs().number("performance");
+        return Double.isNaN(performance) || performance < 0 ? 0 : performance;
+    }
+
+    private PCConfiguration toConfiguration(Build build, SearchSpace space, String purpose, int rank) {
+        PCConfiguration config = PCConfiguration.builder()
+                .name(String.format("Сборка «%s» #%d", purpose, rank))
+                .description("Автоматически подобранная конфигурация")
+                .category(purpose)
+                .totalPrice(BigDecimal.valueOf(build.price).setScale(2, RoundingMode.HALF_UP))
+                .totalPerformance(build.performance)
+                .isCompatible(true)
+                .isPublic(false)
+                .build();
+
+        for (int index : build.products) {
+            Product product = space.products.get(index);
+            ConfigComponent component = new ConfigComponent();
+            component.setId(new ConfigComponentId(null, product.getId()));
+            component.setConfiguration(config);
+            component.setProduct(product);
+            config.getComponents().add(component);
+        }
+        return config;
+    }
+
+    /**
+     * Кандидаты одного слота и их предвычисленные характеристики
+     */
+    private static final class Slot {
+        private final ComponentType type;
+        private final boolean optional;
+        private final int offset;
+        private final double[] price;
+        private final double[] performance;
+        private final int[] power;
+        private final int[] wattage;
+        private final double minPrice;
+        private final double maxPerformance;
+
+        private Slot(ComponentType type, boolean optional, int offset, List<Product> candidates,
+                     PowerCalculator powerCalculator) {
+            this.type = type;
+            this.optional = optional;
+            this.offset = offset;
+            int size = candidates.size();
+            this.price = new double[size];
+            this.performance = new double[size];
+            this.power = new int[size];
+            this.wattage = new int[size];
+
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            for (int i = 0; i < size; i++) {
+                Product product = candidates.get(i);
+                price[i] = product.getPrice().doubleValue();
+                performance[i] = performance(product);
+                power[i] = powerCalculator.getComponentPower(product);
+                wattage[i] = type == ComponentType.PSU ? powerCalculator.getPsuWattage(product) : 0;
+                min = Math.min(min, price[i]);
+                max = Math.max(max, performance[i]);
+            }
+            this.minPrice = optional || size == 0 ? 0 : min;
+            this.maxPerformance = max;
+        }
+
+        private int size() {
+            return price.length;
+        }
+    }
+
+    /**
+     * Неизменяемое пространство поиска, общее для всех потоков
+     */
+    private static final class SearchSpace {
+        private final Slot[] slots;
+        private final List<Product> products;
+        private final boolean[][] compatible;
+        private final double[] remainingMinPrice;
+        private final double[] remainingMaxPerformance;
+
+        private SearchSpace(Slot[] slots, List<Product> products, boolean[][] compatible) {
+            this.slots = slots;
+            this.products = products;
+            this.compatible = compatible;
+            this.remainingMinPrice = new double[slots.length + 1];
+            this.remainingMaxPerformance = new double[slots.length + 1];
+            for (int s = slots.length - 1; s >= 0; s--) {
+                remainingMinPrice[s] = remainingMinPrice[s + 1] + slots[s].minPrice;
+                remainingMaxPerformance[s] = remainingMaxPerformance[s + 1] + slots[s].maxPerformance;
+            }
+        }
+    }
+
+    /**
+     * Поиск в глубину в одном потоке (от фиксированного кандидата первого слота)
+     */
+    private static final class Search {
+        private final SearchSpace space;
+        private final TopBuilds top;
+        private final double budget;
+        private final long deadline;
+        private final int[] chosen;
+        private int visited;
+        private boolean stopped;
+
+        private Search(SearchSpace space, TopBuilds top, double budget, long deadline) {
+            this.space = space;
+            this.top = top;
+            this.budget = budget;
+            this.deadline = deadline;
+            this.chosen = new int[space.slots.length];
+        }
+
+        private void start(int firstCandidate) {
+            Slot first = space.slots[0];
+            chosen[0] = first.offset + firstCandidate;
+            dfs(1, first.price[firstCandidate], first.performance[firstCandidate], first.power[firstCandidate]);
+        }
+
+        private void dfs(int depth, double price, double performance, int power) {
+            if (stopped || ((++visited & 0xFF) == 0 && isExpired())) {
+                return;
+            }
+            if (depth == space.slots.length) {
+                top.offer(chosen, price, performance);
+                return;
+            }
+            // Граница по бюджету и по лучшей достижимой производительности
+            if (price + space.remainingMinPrice[depth] > budget
+                    || !top.canImprove(performance + space.remainingMaxPerformance[depth])) {
+                return;
+            }
+
+            Slot slot = space.slots[depth];
+            for (int i = 0; i < slot.size(); i++) {
+                double nextPrice = price + slot.price[i];
+                if (nextPrice + space.remainingMinPrice[depth + 1] > budget) {
+                    continue;
+                }
+                int global = slot.offset + i;
+                if (!isCompatibleWithChosen(global, depth)) {
+                    continue;
+                }
+                int nextPower = power + slot.power[i];
+                if (slot.type == ComponentType.PSU && slot.wattage[i] < nextPower) {
+                    continue;
+                }
+                chosen[depth] = global;
+                dfs(depth + 1, nextPrice, performance + slot.performance[i], nextPower);
+            }
+
+            if (slot.optional) {
+                chosen[depth] = -1;
+                dfs(depth + 1, price, performance, power);
+            }
+        }
+
+        private boolean isCompatibleWithChosen(int candidate, int depth) {
+            boolean[] row = space.compatible[candidate];
+            for (int d = 0; d < depth; d++) {
+                if (chosen[d] >= 0 && !row[chosen[d]]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isExpired() {
+            if (System.nanoTime() > deadline || Thread.currentThread().isInterrupted()) {
+                stopped = true;
+            }
+            return stopped;
+        }
+    }
+
+    /**
+     * Найденная сборка: индексы товаров в пространстве поиска
+     */
+    private static final class Build {
+        private final int[] products;
+        private final double price;
+        private final double performance;
+
+        private Build(int[] chosen, double price, double performance) {
+            this.products = Arrays.stream(chosen).filter(index -> index >= 0).toArray();
+            this.price = price;
+            this.performance = performance;
+        }
+    }
+
+    /**
+     * Потокобезопасный топ-K сборок по производительности (при равенстве - дешевле лучше)
+     */
+    private static final class TopBuilds {
+        private static final Comparator<Build> WORST_FIRST = Comparator
+                .comparingDouble((Build build) -> build.performance)
+                .thenComparing(Comparator.comparingDouble((Build build) -> build.price).reversed());
+
+        private final int capacity;
+        private final PriorityQueue<Build> heap = new PriorityQueue<>(WORST_FIRST);
+        private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+        private TopBuilds(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+
+        private boolean canImprove(double performanceUpperBound) {
+            return performanceUpperBound >= threshold;
+        }
+
+        private synchronized void offer(int[] chosen, double price, double performance) {
+            if (heap.size() >= capacity) {
+                Build worst = heap.peek();
+                if (performance < worst.performance
+                        || (performance == worst.performance && price >= worst.price)) {
+                    return;
+                }
+            }
+            heap.add(new Build(chosen, price, performance));
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+            if (heap.size() >= capacity) {
+                threshold = heap.peek().performance;
+            }
+        }
+
+        private synchronized List<Build> snapshot() {
+            List<Build> builds = new ArrayList<>(heap);
+            builds.sort(WORST_FIRST.reversed());
+            return builds;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.ConfigComponent;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ConfigComponentRepository;
+
+import java.util.*;
+
+/**
+ * Реестр состояний проверки конфигураций.
+ * Для каждой конфигурации хранит ее компоненты, несовместимые пары и бюджет мощности,
+ * чтобы при добавлении компонента проверять только новую деталь против существующих,
+ * а при удалении - отбрасывать только затронутые пары, без повторного чтения из БД.
+ *
+ * Состояние строится из БД при первом обращении и вытесняется по LRU.
+ * При смене набора правил или изменении товара состояние пересобирается.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfigurationStateRegistry {
+
+    private final ConfigComponentRepository configComponentRepository;
+    private final CompatibilityRuleEngine ruleEngine;
+    private final PowerCalculator powerCalculator;
+
+    @Value("${app.configurator.state-cache-size:1000}")
+    private int maxStates;
+
+    private final Map<Long, ConfigurationState> states = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ConfigurationState> eldest) {
+            return size() > maxStates;
+        }
+    };
+
+    /**
+     * Возвращает актуальное состояние конфигурации, загружая его из БД при необходимости
+     * @param configId ID конфигурации
+     * @return состояние конфигурации
+     */
+    public ConfigurationState get(Long configId) {
+        long ruleVersion = ruleEngine.getVersion();
+        synchronized (states) {
+            ConfigurationState state = states.get(configId);
+            if (state != null && state.ruleVersion == ruleVersion) {
+                return state;
+            }
+        }
+
+        ConfigurationState loaded = load(configId, ruleVersion);
+        synchronized (states) {
+            states.put(configId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Учитывает добавленный компонент: проверяет только новую деталь против существующих
+     */
+    public ConfigurationState componentAdded(Long configId, Product product) {
+        ConfigurationState state = get(configId);
+        state.add(product);
+        evictOnRollback(configId);
+        return state;
+    }
+
+    /**
+     * Учитывает удаленный компонент: отбрасывает только пары с его участием
+     */
+    public ConfigurationState componentRemoved(Long configId, Long productId) {
+        ConfigurationState state = get(configId);
+        state.remove(productId);
+        evictOnRollback(configId);
+        return state;
+    }
+
+    /**
+     * Удаляет состояние конфигурации из реестра
+     */
+    public void evict(Long configId) {
+        synchronized (states) {
+            states.remove(configId);
+        }
+    }
+
+    /**
+     * Удаляет состояние конфигурации после завершения транзакции, в которой состав
+     * конфигурации заменен или конфигурация удалена (без транзакции - сразу)
+     */
+    public void evictAfterCompletion(Long configId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(configId);
+                }
+            });
+        } else {
+            evict(configId);
+        }
+    }
+
+    /**
+     * Сбрасывает состояния конфигураций, содержащих измененный товар
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (states) {
+            states.values().removeIf(state -> state.contains(event.getProductId()));
+        }
+    }
+
+    private ConfigurationState load(Long configId, long ruleVersion) {
+        ConfigurationState state = new ConfigurationState(ruleVersion);
+        for (ConfigComponent component : configComponentRepository.findByConfigId(configId)) {
+            state.add(component.getProduct());
+        }
+        log.debug("Состояние конфигурации {} загружено: {} компонентов, {} несовместимых пар",
+                configId, state.products.size(), state.failingPairs.size());
+        return state;
+    }
+
+    /**
+     * Изменения состояния делаются до фиксации транзакции; при откате состояние сбрасывается
+     */
+    private void evictOnRollback(Long configId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evict(configId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Состояние проверки одной конфигурации
+     */
+    public final class ConfigurationState {
+        private final long ruleVersion;
+        private final Map<Long, Product> products = new LinkedHashMap<>();
+        private final Map<ComponentType, Integer> typeCounts = new EnumMap<>(ComponentType.class);
+        private final Set<List<Long>> failingPairs = new HashSet<>();
+        private int powerDraw;
+
+        private ConfigurationState(long ruleVersion) {
+            this.ruleVersion = ruleVersion;
+        }
+
+        /**
+         * Находит компоненты конфигурации, несовместимые с новым товаром
+         * @param product новый товар
+         * @return несовместимые компоненты (пустой список, если конфликтов нет)
+         */
+        public synchronized List<Product> findConflicts(Product product) {
+            List<Product> conflicts = new ArrayList<>();
+            for (Product existing : products.values()) {
+                if (!ruleEngine.isPairCompatible(product, existing)) {
+                    conflicts.add(existing);
+                }
+            }
+            return conflicts;
+        }
+
+        /**
+         * Проверяет, есть ли в конфигурации компонент указанного типа
+         */
+        public synchronized boolean hasType(ComponentType type) {
+            return type != null && typeCounts.getOrDefault(type, 0) > 0;
+        }
+
+        /**
+         * Конфигурация совместима, если она пуста или содержит все обязательные
+         * компоненты и не имеет несовместимых пар
+         */
+        public synchronized boolean isCompatible() {
+            if (products.isEmpty()) {
+                return true;
+            }
+            for (ComponentType type : ComponentType.values()) {
+                if (type.isRequired() && !hasType(type)) {
+                    return false;
+                }
+            }
+            return failingPairs.isEmpty();
+        }
+
+        /**
+         * Возвращает суммарное энергопотребление компонентов (без БП)
+         */
+        public synchronized int getPowerDraw() {
+            return powerDraw;
+        }
+
+        /**
+         * Возвращает товары конфигурации в порядке добавления
+         */
+        public synchronized List<Product> getProducts() {
+            return List.copyOf(products.values());
+        }
+
+        /**
+         * Возвращает несовместимые пары компонентов (ID товаров)
+         */
+        public synchronized Set<List<Long>> getFailingPairs() {
+            return Set.copyOf(failingPairs);
+        }
+
+        private synchronized boolean contains(Long productId) {
+            return products.containsKey(productId);
+        }
+
+        private synchronized void add(Product product) {
+            if (products.containsKey(product.getId())) {
+                return;
+            }
+            for (Product existing : products.values()) {
+                if (!ruleEngine.isPairCompatible(product, existing)) {
+                    failingPairs.add(pairKey(product.getId(), existing.getId()));
+                }
+            }
+            products.put(product.getId(), product);
+            if (product.getComponentType() != null) {
+                typeCounts.merge(product.getComponentType(), 1, Integer::sum);
+            }
+            powerDraw += powerCalculator.getComponentPower(product);
+        }
+
+        private synchronized void remove(Long productId) {
+            Product product = products.remove(productId);
+            if (product == null) {
+                return;
+            }
+            failingPairs.removeIf(pair -> pair.contains(productId));
+            if (product.getComponentType() != null) {
+                typeCounts.computeIfPresent(product.getComponentType(), (type, count) -> count > 1 ? count - 1 : null);
+            }
+            powerDraw -= powerCalculator.getComponentPower(product);
+        }
+
+        private List<Long> pairKey(Long first, Long second) {
+            return first < second ? List.of(first, second) : List.of(second, first);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.bek.compshp.dto.ConfigurationSearchRequest;
+import ru.bek.compshp.dto.ConfigurationSummaryDto;
+import ru.bek.compshp.dto.KeysetPage;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.ConfigurationSummary;
+import ru.bek.compshp.model.PCConfiguration;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ConfigurationSummaryRepository;
+import ru.bek.compshp.util.KeysetCursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Сервис сводок конфигураций.
+ * Поддерживает денормализованную сводку каждой конфигурации (итоги, маска типов компонентов,
+ * процессор и видеокарта) и отдает списки конфигураций постранично по ключу прямо из сводок.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfigurationSummaryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Начальное значение курсора по дате для сортировки от новых к старым
+     */
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final ConfigurationSummaryRepository summaryRepository;
+    private final ConfigurationStateRegistry configurationStateRegistry;
+    private final PowerCalculator powerCalculator;
+
+    /**
+     * Пересчитывает сводку конфигурации по ее текущему состоянию в реестре
+     * @param config конфигурация
+     */
+    public void refresh(PCConfiguration config) {
+        refresh(config, configurationStateRegistry.get(config.getId()).getProducts());
+    }
+
+    /**
+     * Пересчитывает сводку конфигурации по известному составу
+     * @param config конфигурация
+     * @param products товары конфигурации
+     */
+    public void refresh(PCConfiguration config, Collection<Product> products) {
+        ConfigurationSummary summary = summaryRepository.findById(config.getId())
+                .orElseGet(() -> ConfigurationSummary.builder().configId(config.getId()).build());
+
+        summary.setUserId(config.getUser() != null ? config.getUser().getId() : null);
+        summary.setName(config.getName() != null ? config.getName() : "");
+        summary.setCategory(config.getCategory());
+        summary.setPublic(Boolean.TRUE.equals(config.getIsPublic()));
+        summary.setCompatible(Boolean.TRUE.equals(config.getIsCompatible()));
+        summary.setTotalPrice(config.getTotalPrice() != null ? config.getTotalPrice() : BigDecimal.ZERO);
+        summary.setTotalPerformance(config.getTotalPerformance());
+        summary.setCreatedAt(config.getCreatedAt() != null ? config.getCreatedAt() : LocalDateTime.now());
+        summary.setUpdatedAt(config.getUpdatedAt() != null ? config.getUpdatedAt() : summary.getCreatedAt());
+
+        int powerDraw = 0;
+        List<ComponentType> types = new ArrayList<>(products.size());
+        Product cpu = null;
+        Product gpu = null;
+        for (Product product : products) {
+            powerDraw += powerCalculator.getComponentPower(product);
+            types.add(product.getComponentType());
+            if (cpu == null && product.getComponentType() == ComponentType.CPU) {
+                cpu = product;
+            }
+            if (gpu == null && product.getComponentType() == ComponentType.GPU) {
+                gpu = product;
+            }
+        }
+
+        summary.setPowerDraw(powerDraw);
+        summary.setComponentTypes(ComponentType.maskOf(types));
+        summary.setComponentCount(products.size());
+        summary.setCpuProductId(cpu != null ? cpu.getId() : null);
+        summary.setCpuName(cpu != null ? cpu.getTitle() : null);
+        summary.setGpuProductId(gpu != null ? gpu.getId() : null);
+        summary.setGpuName(gpu != null ? gpu.getTitle() : null);
+
+        summaryRepository.save(summary);
+    }
+
+    /**
+     * Обновляет названия процессора и видеокарты в сводках после изменения товара
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProductChanged(ProductChangedEvent event) {
+        int updated = summaryRepository.refreshCpuName(event.getProductId())
+                + summaryRepository.refreshGpuName(event.getProductId());
+        if (updated > 0) {
+            log.debug("Обновлено {} сводок конфигураций после изменения товара {}", updated, event.getProductId());
+        }
+    }
+
+    /**
+     * Публичные конфигурации, новые первыми
+     * @param cursor курсор страницы (null - первая страница)
+     * @param limit размер страницы
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ConfigurationSummaryDto> getPublicConfigurations(String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = pageSize(limit);
+        List<ConfigurationSummary> rows = summaryRepository.findPublicPage(
+                after != null ? LocalDateTime.parse(after.getSortValue()) : FAR_FUTURE,
+                after != null ? after.getId() : Long.MAX_VALUE,
+                PageRequest.of(0, size + 1));
+        return toPage(rows, size, ConfigurationSummary::getCreatedAt);
+    }
+
+    /**
+     * Конфигурации в диапазоне цен, дешевые первыми
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ConfigurationSummaryDto> getConfigurationsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                             String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = pageSize(limit);
+        List<ConfigurationSummary> rows = summaryRepository.findPriceRangePage(
+                minPrice, maxPrice,
+                after != null ? new BigDecimal(after.getSortValue()) : minPrice,
+                after != null ? after.getId() : Long.MIN_VALUE,
+                PageRequest.of(0, size + 1));
+        return toPage(rows, size, ConfigurationSummary::getTotalPrice);
+    }
+
+    /**
+     * Конфигурации с производительностью не ниже заданной, производительные первыми
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ConfigurationSummaryDto> getConfigurationsByPerformance(double minPerformance,
+                                                                              String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = pageSize(limit);
+        List<ConfigurationSummary> rows = summaryRepository.findPerformancePage(
+                minPerformance,
+                after != null ? Double.parseDouble(after.getSortValue()) : Double.MAX_VALUE,
+                after != null ? after.getId() : Long.MAX_VALUE,
+                PageRequest.of(0, size + 1));
+        return toPage(rows, size, ConfigurationSummary::getTotalPerformance);
+    }
+
+    /**
+     * Ищет конфигурации по набору фильтров
+     * @param request фильтры, порядок сортировки, курсор и размер страницы
+     * @return страница сводок
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ConfigurationSummaryDto> search(ConfigurationSearchRequest request) {
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("Минимальная цена больше максимальной");
+        }
+        if (request.getSort() == null) {
+            request.setSort(ConfigurationSearchRequest.SortOrder.NEWEST);
+        }
+
+        int size = pageSize(request.getLimit());
+        List<ConfigurationSummary> rows = summaryRepository.search(request, KeysetCursor.decode(request.getCursor()), size + 1);
+        return toPage(rows, size, switch (request.getSort()) {
+            case NEWEST -> ConfigurationSummary::getCreatedAt;
+            case PRICE_ASC -> ConfigurationSummary::getTotalPrice;
+            case PERFORMANCE_DESC -> ConfigurationSummary::getTotalPerformance;
+        });
+    }
+
+    /**
+     * Преобразует сводку в DTO
+     */
+    public ConfigurationSummaryDto toDto(ConfigurationSummary summary) {
+        return ConfigurationSummaryDto.builder()
+                .id(summary.getConfigId())
+                .userId(summary.getUserId())
+                .name(summary.getName())
+                .category(summary.getCategory())
+                .isPublic(summary.isPublic())
+                .isCompatible(summary.isCompatible())
+                .totalPrice(summary.getTotalPrice())
+                .totalPerformance(summary.getTotalPerformance())
+                .powerDraw(summary.getPowerDraw())
+                .componentTypes(ComponentType.fromMask(summary.getComponentTypes()))
+                .componentCount(summary.getComponentCount())
+                .cpuName(summary.getCpuName())
+                .gpuName(summary.getGpuName())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Формирует страницу: запрашивается на одну строку больше, чтобы узнать, есть ли продолжение
+     */
+    private KeysetPage<ConfigurationSummaryDto> toPage(List<ConfigurationSummary> rows, int size,
+                                                       Function<ConfigurationSummary, Object> sortKey) {
+        boolean hasMore = rows.size() > size;
+        List<ConfigurationSummary> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        List<ConfigurationSummaryDto> items = new ArrayList<>(pageRows.size());
+        for (ConfigurationSummary summary : pageRows) {
+            items.add(toDto(summary));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ConfigurationSummary last = pageRows.get(pageRows.size() - 1);
+            nextCursor = KeysetCursor.encode(sortKey.apply(last), last.getConfigId());
+        }
+
+        return KeysetPage.<ConfigurationSummaryDto>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
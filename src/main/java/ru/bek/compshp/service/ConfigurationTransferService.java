@@ -0,0 +1,476 @@
+package ru.bek.compshp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.bek.compshp.dto.ConfigurationImportResult;
+import ru.bek.compshp.dto.ConfigurationTransferDto;
+import ru.bek.compshp.dto.ConfigurationTransferDto.ComponentEntry;
+import ru.bek.compshp.exception.ResourceNotFoundException;
+import ru.bek.compshp.model.ConfigComponent;
+import ru.bek.compshp.model.PCConfiguration;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.User;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ConfigComponentRepository;
+import ru.bek.compshp.repository.PCConfigurationRepository;
+import ru.bek.compshp.repository.ProductRepository;
+import ru.bek.compshp.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Сервис экспорта и импорта конфигураций ПК.
+ *
+ * Формат - компактный JSON с номером версии; пакетная выгрузка и загрузка идут
+ * в NDJSON (одна конфигурация на строку). Записи читаются и пишутся потоковыми
+ * JsonParser/JsonGenerator, а конфигурации обрабатываются пачками с очисткой
+ * контекста персистентности, поэтому объем выгрузки не ограничен памятью.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfigurationTransferService {
+
+    /**
+     * Текущая версия формата
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final int IMPORT_BATCH_SIZE = 200;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final PCConfigurationRepository pcConfigurationRepository;
+    private final ConfigComponentRepository configComponentRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ComponentCompatibilityService compatibilityService;
+    private final ConfigurationSummaryService configurationSummaryService;
+    private final PowerCalculator powerCalculator;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Экспортирует одну конфигурацию
+     * @param configId ID конфигурации
+     * @return JSON конфигурации
+     */
+    @Transactional(readOnly = true)
+    public String exportConfiguration(Long configId) {
+        PCConfiguration config = pcConfigurationRepository.findWithComponentsById(configId)
+            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
+
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory().createGenerator(writer)) {
+            write(generator, config);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Выгружает конфигурации в NDJSON
+     * @param userId ID пользователя или null для всех конфигураций
+     * @param out поток вывода (не закрывается)
+     * @return количество выгруженных конфигураций
+     */
+    @Transactional(readOnly = true)
+    public int exportConfigurations(Long userId, OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Записи разделяются переводом строки, а не пробелом по умолчанию
+        generator.setRootValueSeparator(null);
+
+        int exported = 0;
+        long afterId = 0;
+        while (true) {
+            PageRequest page = PageRequest.of(0, EXPORT_BATCH_SIZE);
+            List<Long> ids = userId != null
+                ? pcConfigurationRepository.findIdPageByUser(userId, afterId, page)
+                : pcConfigurationRepository.findIdPage(afterId, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (PCConfiguration config : pcConfigurationRepository.findWithComponentsByIdIn(ids)) {
+                write(generator, config);
+                generator.writeRaw('\n');
+                exported++;
+            }
+            generator.flush();
+            afterId = ids.get(ids.size() - 1);
+
+            // Выгруженная пачка больше не нужна
+            entityManager.clear();
+        }
+        generator.close();
+
+        log.info("Выгружено {} конфигураций", exported);
+        return exported;
+    }
+
+    /**
+     * Импортирует одну конфигурацию
+     * @param userId ID пользователя-владельца
+     * @param json JSON конфигурации
+     * @return созданная конфигурация с компонентами
+     */
+    @Transactional
+    public PCConfiguration importConfiguration(Long userId, String json) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        ConfigurationTransferDto record;
+        try (JsonParser parser = jsonFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Ожидался JSON-объект конфигурации");
+            }
+            record = read(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректный JSON конфигурации: " + e.getMessage());
+        }
+        if (record.getVersion() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия формата конфигурации: " + record.getVersion());
+        }
+
+        Long configId = persistBatch(user, List.of(record), null).get(0);
+        return pcConfigurationRepository.findWithComponentsById(configId)
+            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
+    }
+
+    /**
+     * Загружает конфигурации из NDJSON.
+     * Записи с неизвестной версией или ненайденными товарами пропускаются и попадают в отчет;
+     * синтаксическая ошибка JSON прерывает импорт.
+     * @param userId ID пользователя-владельца
+     * @param in поток NDJSON
+     * @return отчет об импорте
+     */
+    @Transactional
+    public ConfigurationImportResult importConfigurations(Long userId, InputStream in) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        ConfigurationImportResult result = ConfigurationImportResult.builder().build();
+        List<ConfigurationTransferDto> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Integer> recordNumbers = new ArrayList<>(IMPORT_BATCH_SIZE);
+        int recordNumber = 0;
+        try (JsonParser parser = jsonFactory().createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                recordNumber++;
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Запись " + recordNumber + ": ожидался JSON-объект конфигурации");
+                }
+                ConfigurationTransferDto record = read(parser);
+                if (record.getVersion() != FORMAT_VERSION) {
+                    reject(result, recordNumber, "неподдерживаемая версия формата " + record.getVersion());
+                    continue;
+                }
+                batch.add(record);
+                recordNumbers.add(recordNumber);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    importBatch(userId, batch, recordNumbers, result);
+                    batch.clear();
+                    recordNumbers.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректный NDJSON, запись " + recordNumber + ": " + e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            importBatch(userId, batch, recordNumbers, result);
+        }
+
+        log.info("Импортировано {} конфигураций, пропущено {}", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void importBatch(Long userId, List<ConfigurationTransferDto> batch, List<Integer> recordNumbers,
+                             ConfigurationImportResult result) {
+        // Пользователь перечитывается после очистки контекста предыдущей пачки
+        User user = userRepository.getReferenceById(userId);
+        List<Long> created = persistBatch(user, batch,
+            (index, message) -> reject(result, recordNumbers.get(index), message));
+        result.setImported(result.getImported() + created.size());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Сохраняет пачку конфигураций: товары всех записей разрешаются двумя запросами,
+     * компоненты каждой конфигурации вставляются одним JDBC-пакетом
+     * @param onError обработчик пропущенной записи (индекс в пачке, причина) или null,
+     *                чтобы бросать исключение
+     * @return ID созданных конфигураций
+     */
+    private List<Long> persistBatch(User user, List<ConfigurationTransferDto> records, RecordErrorHandler onError) {
+        ProductResolver resolver = new ProductResolver(records);
+        List<Long> created = new ArrayList<>(records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            ConfigurationTransferDto record = records.get(i);
+            List<Product> products = new ArrayList<>(record.getComponents().size());
+            String error = null;
+            for (ComponentEntry entry : record.getComponents()) {
+                Product product = resolver.resolve(entry);
+                if (product == null) {
+                    error = "товар не найден: " + describe(entry);
+                    break;
+                }
+                products.add(product);
+            }
+            if (error == null && (record.getName() == null || record.getName().isBlank())) {
+                error = "не указано название конфигурации";
+            }
+            if (error != null) {
+                if (onError == null) {
+                    throw new IllegalArgumentException("Конфигурация не импортирована: " + error);
+                }
+                onError.reject(i, error);
+                continue;
+            }
+
+            created.add(persist(user, record, products));
+        }
+        return created;
+    }
+
+    private Long persist(User user, ConfigurationTransferDto record, List<Product> products) {
+        // Повторяющиеся товары учитываются один раз (первичный ключ - пара конфигурация/товар)
+        Map<Long, Product> unique = new LinkedHashMap<>();
+        for (Product product : products) {
+            unique.putIfAbsent(product.getId(), product);
+        }
+        List<Product> componentProducts = new ArrayList<>(unique.values());
+
+        // Итоги и совместимость пересчитываются по каталогу текущего окружения
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        double totalPerformance = 0.0;
+        Set<ComponentType> types = EnumSet.noneOf(ComponentType.class);
+        for (Product product : componentProducts) {
+            if (product.getPrice() != null) {
+                totalPrice = totalPrice.add(product.getPrice());
+            }
+            double performance = product.getParsedSpecs().number("performance");
+            if (!Double.isNaN(performance)) {
+                totalPerformance += performance;
+            }
+            if (product.getComponentType() != null) {
+                types.add(product.getComponentType());
+            }
+        }
+        int mask = ComponentType.maskOf(types);
+        boolean compatible = componentProducts.isEmpty()
+            || ((mask & ComponentType.requiredMask()) == ComponentType.requiredMask()
+                && compatibilityService.checkProductsCompatibility(componentProducts, false).isCompatible());
+
+        PCConfiguration config = new PCConfiguration();
+        config.setUser(user);
+        config.setName(record.getName());
+        config.setDescription(record.getDescription());
+        config.setCategory(record.getCategory());
+        config.setIsPublic(Boolean.TRUE.equals(record.getIsPublic()));
+        config.setTotalPrice(totalPrice);
+        config.setTotalPerformance(totalPerformance);
+        config.setIsCompatible(compatible);
+        config.setComponentTypes(mask);
+        config.setPowerDraw(powerCalculator.getTotalPower(componentProducts));
+        config.setPsuWattage(powerCalculator.findPsuWattage(componentProducts));
+        config.setComponents(new HashSet<>());
+
+        PCConfiguration saved = pcConfigurationRepository.save(config);
+        configurationSummaryService.refresh(saved, componentProducts);
+        configComponentRepository.insertComponents(saved, new ArrayList<>(unique.keySet()));
+        return saved.getId();
+    }
+
+    private void write(JsonGenerator generator, PCConfiguration config) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("version", FORMAT_VERSION);
+        generator.writeStringField("name", config.getName());
+        if (config.getDescription() != null) {
+            generator.writeStringField("description", config.getDescription());
+        }
+        if (config.getCategory() != null) {
+            generator.writeStringField("category", config.getCategory());
+        }
+        generator.writeBooleanField("isPublic", Boolean.TRUE.equals(config.getIsPublic()));
+        if (config.getTotalPrice() != null) {
+            generator.writeNumberField("totalPrice", config.getTotalPrice());
+        }
+        generator.writeNumberField("totalPerformance", config.getTotalPerformance());
+
+        generator.writeArrayFieldStart("components");
+        List<ConfigComponent> components = new ArrayList<>(config.getComponents());
+        components.sort(Comparator.comparing(component -> component.getProduct().getId()));
+        for (ConfigComponent component : components) {
+            Product product = component.getProduct();
+            generator.writeStartObject();
+            generator.writeNumberField("productId", product.getId());
+            if (product.getComponentType() != null) {
+                generator.writeStringField("componentType", product.getComponentType().name());
+            }
+            generator.writeStringField("title", product.getTitle());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Читает одну запись; парсер стоит на START_OBJECT. Неизвестные поля пропускаются,
+     * чтобы записи более новых совместимых версий читались без ошибок
+     */
+    private ConfigurationTransferDto read(JsonParser parser) throws IOException {
+        ConfigurationTransferDto record = new ConfigurationTransferDto();
+        record.setComponents(new ArrayList<>());
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "version" -> record.setVersion(parser.getIntValue());
+                case "name" -> record.setName(parser.getText());
+                case "description" -> record.setDescription(parser.getText());
+                case "category" -> record.setCategory(parser.getText());
+                case "isPublic" -> record.setIsPublic(parser.getBooleanValue());
+                case "totalPrice" -> record.setTotalPrice(parser.getDecimalValue());
+                case "totalPerformance" -> record.setTotalPerformance(parser.getDoubleValue());
+                case "components" -> readComponents(parser, record.getComponents());
+                default -> parser.skipChildren();
+            }
+        }
+        return record;
+    }
+
+    private void readComponents(JsonParser parser, List<ComponentEntry> components) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            ComponentEntry entry = new ComponentEntry();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "productId" -> entry.setProductId(parser.getLongValue());
+                    case "componentType" -> entry.setComponentType(parseType(parser.getText()));
+                    case "title" -> entry.setTitle(parser.getText());
+                    default -> parser.skipChildren();
+                }
+            }
+            components.add(entry);
+        }
+    }
+
+    private ComponentType parseType(String value) {
+        try {
+            return ComponentType.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private JsonFactory jsonFactory() {
+        return objectMapper.getFactory();
+    }
+
+    private void reject(ConfigurationImportResult result, int recordNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add("Запись " + recordNumber + ": " + message);
+        }
+    }
+
+    private String describe(ComponentEntry entry) {
+        return entry.getTitle() != null ? entry.getTitle() + " (ID " + entry.getProductId() + ")" : "ID " + entry.getProductId();
+    }
+
+    @FunctionalInterface
+    private interface RecordErrorHandler {
+        void reject(int index, String message);
+    }
+
+    /**
+     * Разрешает товары пачки записей: сначала по ID, затем по названию и типу
+     * (если ID в этом окружении нет или принадлежит другому товару)
+     */
+    private final class ProductResolver {
+        private final Map<Long, Product> byId = new HashMap<>();
+        private final Map<String, List<Product>> byTitle = new HashMap<>();
+
+        private ProductResolver(List<ConfigurationTransferDto> records) {
+            Set<Long> ids = new HashSet<>();
+            for (ConfigurationTransferDto record : records) {
+                for (ComponentEntry entry : record.getComponents()) {
+                    if (entry.getProductId() != null) {
+                        ids.add(entry.getProductId());
+                    }
+                }
+            }
+            if (!ids.isEmpty()) {
+                for (Product product : productRepository.findAllById(ids)) {
+                    byId.put(product.getId(), product);
+                }
+            }
+
+            Set<String> titles = new HashSet<>();
+            for (ConfigurationTransferDto record : records) {
+                for (ComponentEntry entry : record.getComponents()) {
+                    if (entry.getTitle() != null && !matchesById(entry)) {
+                        titles.add(entry.getTitle());
+                    }
+                }
+            }
+            if (!titles.isEmpty()) {
+                for (Product product : productRepository.findByTitleIn(titles)) {
+                    byTitle.computeIfAbsent(product.getTitle(), title -> new ArrayList<>()).add(product);
+                }
+            }
+        }
+
+        private Product resolve(ComponentEntry entry) {
+            if (matchesById(entry)) {
+                return byId.get(entry.getProductId());
+            }
+            for (Product candidate : byTitle.getOrDefault(entry.getTitle(), List.of())) {
+                if (entry.getComponentType() == null || entry.getComponentType() == candidate.getComponentType()) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        private boolean matchesById(ComponentEntry entry) {
+            Product product = entry.getProductId() != null ? byId.get(entry.getProductId()) : null;
+            return product != null && (entry.getTitle() == null || entry.getTitle().equals(product.getTitle()));
+        }
+    }
+}
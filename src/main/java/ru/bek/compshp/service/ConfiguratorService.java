@@ -1,17 +1,30 @@
 package ru.bek.compshp.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bek.compshp.dto.CompatibilityBatchResult.ConfigurationVerdict;
+import ru.bek.compshp.dto.ConfigurationSimulationRequest;
+import ru.bek.compshp.dto.ConfigurationSimulationResult;
+import ru.bek.compshp.dto.PowerBudgetDto;
+import ru.bek.compshp.event.ProductChangedEvent;
 import ru.bek.compshp.model.*;
 import ru.bek.compshp.repository.ConfigComponentRepository;
 import ru.bek.compshp.repository.PCConfigurationRepository;
 import ru.bek.compshp.repository.ProductRepository;
 import ru.bek.compshp.repository.UserRepository;
+import ru.bek.compshp.service.ConfigurationStateRegistry.ConfigurationState;
 import ru.bek.compshp.model.enums.ComponentType;
 import ru.bek.compshp.exception.ResourceNotFoundException;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,8 +40,26 @@ public class ConfiguratorService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final ComponentCompatibilityService compatibilityService;
+    private final CompatibilityMatrix compatibilityMatrix;
+    private final PowerCalculator powerCalculator;
+    private final ConfigurationAutoBuilder configurationAutoBuilder;
+    private final ConfigurationStateRegistry configurationStateRegistry;
+    private final ConfigurationSummaryService configurationSummaryService;
+    private final ComponentRecommendationService componentRecommendationService;
+    private final ExecutorService configuratorExecutor;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger log = LoggerFactory.getLogger(ConfiguratorService.class);
 
+    /**
+     * Сколько конфигураций загружается за раз при пересчете потребления
+     */
+    private static final int POWER_REFRESH_BATCH_SIZE = 500;
+
+    /**
+     * Товары, пересчет потребления по которым поставлен в очередь, но еще не начат
+     */
+    private final Set<Long> powerRefreshPending = ConcurrentHashMap.newKeySet();
+
     // Базовые операции с конфигурациями
     /**
      * Получает конфигурацию по ID в виде Optional
@@ -65,7 +96,7 @@ public class ConfiguratorService {
         config.setTotalPrice(BigDecimal.ZERO);
         config.setTotalPerformance(0.0);
         config.setIsCompatible(true);
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config, List.of());
     }
 
     /**
@@ -90,7 +121,7 @@ public class ConfiguratorService {
         config.setTotalPerformance(0.0);
         config.setIsCompatible(true);
         
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config, List.of());
     }
 
     /**
@@ -107,46 +138,138 @@ public class ConfiguratorService {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
-        // Создаем конфигурацию без компонентов
+        // Повторяющиеся ID учитываем один раз, сохраняя порядок запроса
+        Set<Long> distinctIds = new LinkedHashSet<>(componentIds);
+        
+        // Загружаем все товары одним запросом
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(distinctIds)) {
+            productsById.put(product.getId(), product);
+        }
+        
+        List<Product> candidates = new ArrayList<>(distinctIds.size());
+        for (Long productId : distinctIds) {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                log.warn("Не удалось добавить компонент {} в новую конфигурацию: товар не найден", productId);
+            } else {
+                candidates.add(product);
+            }
+        }
+        
+        // Одна проверка попарной совместимости всего набора
+        List<List<Boolean>> matrix = compatibilityService.checkProductsCompatibility(candidates, false).getMatrix();
+        
+        // Принимаем компоненты по порядку, как при поштучном добавлении: второй компонент того же типа
+        // и компонент, несовместимый с уже принятыми, пропускаются
+        List<Product> accepted = new ArrayList<>(candidates.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(candidates.size());
+        Set<ComponentType> presentTypes = EnumSet.noneOf(ComponentType.class);
+        for (int i = 0; i < candidates.size(); i++) {
+            Product product = candidates.get(i);
+            if (product.getComponentType() != null && presentTypes.contains(product.getComponentType())) {
+                log.warn("Не удалось добавить компонент {} в новую конфигурацию: компонент типа {} уже добавлен",
+                    product.getId(), product.getComponentType());
+                continue;
+            }
+            List<Boolean> row = matrix.get(i);
+            if (acceptedIndexes.stream().anyMatch(j -> !row.get(j))) {
+                log.warn("Не удалось добавить компонент {} в новую конфигурацию: компонент несовместим с конфигурацией",
+                    product.getId());
+                continue;
+            }
+            accepted.add(product);
+            acceptedIndexes.add(i);
+            if (product.getComponentType() != null) {
+                presentTypes.add(product.getComponentType());
+            }
+        }
+        
+        // Итоги считаем заранее, чтобы сохранить конфигурацию одним INSERT
+        BigDecimal totalPrice = sumPrice(accepted);
+        double totalPerformance = sumPerformance(accepted);
+        
+        boolean hasAllRequired = accepted.isEmpty() || Arrays.stream(ComponentType.values())
+            .filter(ComponentType::isRequired)
+            .allMatch(presentTypes::contains);
+        
         PCConfiguration config = new PCConfiguration();
         config.setUser(user);
         config.setName(name);
         config.setDescription(description);
         config.setCategory(category);
-        config.setTotalPrice(BigDecimal.ZERO);
-        config.setTotalPerformance(0.0);
-        config.setIsCompatible(true);
+        config.setTotalPrice(totalPrice);
+        config.setTotalPerformance(totalPerformance);
+        config.setIsCompatible(hasAllRequired);
+        config.setComponentTypes(ComponentType.maskOf(presentTypes));
+        config.setPowerDraw(powerCalculator.getTotalPower(accepted));
+        config.setPsuWattage(powerCalculator.findPsuWattage(accepted));
         config.setComponents(new HashSet<>());
         
-        // Сначала сохраняем конфигурацию
         PCConfiguration savedConfig = pcConfigurationRepository.save(config);
+        configurationSummaryService.refresh(savedConfig, accepted);
         
-        // Собираем информацию о компонентах и считаем общую цену
-        BigDecimal totalPrice = BigDecimal.ZERO;
-        double totalPerformance = 0.0;
+        // Все компоненты вставляются одним JDBC-пакетом
+        configComponentRepository.insertComponents(savedConfig,
+            accepted.stream().map(Product::getId).toList());
         
-        // Группируем компоненты по ID для учета количества
-        Map<Long, Integer> componentQuantities = new HashMap<>();
-        for (Long productId : componentIds) {
-            componentQuantities.put(productId, componentQuantities.getOrDefault(productId, 0) + 1);
-        }
+        log.info("Создана конфигурация {} с {} из {} компонентов", 
+            savedConfig.getId(), accepted.size(), componentIds.size());
         
-        // Добавляем компоненты по одному
-        for (Map.Entry<Long, Integer> entry : componentQuantities.entrySet()) {
-            Long productId = entry.getKey();
-            
-            try {
-                // Используем существующий метод для добавления компонента
-                PCConfiguration updatedConfig = addComponent(savedConfig.getId(), productId);
-                savedConfig = updatedConfig;
-            } catch (Exception e) {
-                log.warn("Не удалось добавить компонент {} в конфигурацию {}: {}", 
-                    productId, savedConfig.getId(), e.getMessage());
+        return loadSavedConfiguration(savedConfig.getId());
+    }
+
+    /**
+     * Сохраняет конфигурацию с заменой всего состава (например, присланную клиентом целиком).
+     * Товары перечитываются из каталога, итоги, маска типов и совместимость пересчитываются,
+     * сводка обновляется, а состояние проверки в реестре сбрасывается после завершения транзакции
+     * @param config новая или загруженная конфигурация с заполненными владельцем и описанием
+     * @param productIds ID товаров нового состава
+     * @return сохраненная конфигурация с компонентами
+     * @throws ResourceNotFoundException если товар не найден
+     */
+    @Transactional
+    public PCConfiguration saveConfiguration(PCConfiguration config, Collection<Long> productIds) {
+        // Повторяющиеся ID учитываем один раз (первичный ключ - пара конфигурация/товар)
+        Set<Long> distinctIds = new LinkedHashSet<>(productIds);
+        
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(distinctIds)) {
+            productsById.put(product.getId(), product);
+        }
+        List<Product> products = new ArrayList<>(distinctIds.size());
+        for (Long productId : distinctIds) {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
             }
+            products.add(product);
         }
         
-        // Возвращаем обновленную конфигурацию
-        return savedConfig;
+        int componentTypes = ComponentType.maskOf(products.stream().map(Product::getComponentType).toList());
+        boolean compatible = products.isEmpty()
+            || ((componentTypes & ComponentType.requiredMask()) == ComponentType.requiredMask()
+                && compatibilityService.checkProductsCompatibility(products, false).isCompatible());
+        
+        config.setTotalPrice(sumPrice(products));
+        config.setTotalPerformance(sumPerformance(products));
+        config.setComponentTypes(componentTypes);
+        config.setIsCompatible(compatible);
+        config.setPowerDraw(powerCalculator.getTotalPower(products));
+        config.setPsuWattage(powerCalculator.findPsuWattage(products));
+        
+        // Прежние компоненты удаляются вместе с коллекцией, новые вставляются одним JDBC-пакетом
+        if (config.getComponents() == null) {
+            config.setComponents(new HashSet<>());
+        } else {
+            config.getComponents().clear();
+        }
+        PCConfiguration savedConfig = pcConfigurationRepository.save(config);
+        configurationSummaryService.refresh(savedConfig, products);
+        configComponentRepository.insertComponents(savedConfig, new ArrayList<>(distinctIds));
+        configurationStateRegistry.evictAfterCompletion(savedConfig.getId());
+        
+        return loadSavedConfiguration(savedConfig.getId());
     }
 
     /**
@@ -156,7 +279,7 @@ public class ConfiguratorService {
      */
     @Transactional
     public PCConfiguration updateConfiguration(PCConfiguration config) {
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config);
     }
     
     /**
@@ -176,7 +299,7 @@ public class ConfiguratorService {
         config.setDescription(description);
         config.setCategory(category);
         
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config);
     }
 
     /**
@@ -194,17 +317,18 @@ public class ConfiguratorService {
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
 
+        // Состояние конфигурации: компоненты, несовместимые пары и потребление
+        ConfigurationState state = configurationStateRegistry.get(configId);
+
         // Проверяем, нет ли уже компонента такого типа
-        if (configComponentRepository.existsByIdConfigIdAndProduct_ComponentType(
-            configId, product.getComponentType())) {
+        if (state.hasType(product.getComponentType())) {
             throw new IllegalStateException("Component of this type already exists in configuration");
         }
 
-        // Проверяем совместимость с существующими компонентами
-        List<ConfigComponent> existingComponents = configComponentRepository.findByConfigId(configId);
-        if (!compatibilityService.isCompatibleWithConfiguration(product, existingComponents)) {
-            Map<Product, String> incompatibilityDetails = 
-                compatibilityService.getIncompatibilityDetails(product, existingComponents);
+        // Проверяем совместимость только нового компонента с существующими
+        if (!state.findConflicts(product).isEmpty()) {
+            Map<Product, String> incompatibilityDetails = compatibilityService.getIncompatibilityDetails(
+                product, configComponentRepository.findByConfigId(configId));
             
             if (!incompatibilityDetails.isEmpty()) {
                 String errorMessage = "Компонент несовместим с существующей конфигурацией: " + 
@@ -225,21 +349,21 @@ public class ConfiguratorService {
         // Обновляем общую стоимость и производительность
         config.setTotalPrice(config.getTotalPrice().add(product.getPrice()));
         // Обновляем производительность если у продукта есть такая характеристика
-        try {
-            Double currentPerformance = config.getTotalPerformance();
-            String performanceStr = product.getSpec("performance");
-            if (performanceStr != null && !performanceStr.isEmpty()) {
-                double productPerformance = Double.parseDouble(performanceStr);
-                config.setTotalPerformance(currentPerformance + productPerformance);
-            }
-        } catch (Exception e) {
-            // Если характеристики нет или она не числовая, игнорируем
+        // Если характеристики нет или она не числовая, игнорируем
+        double productPerformance = product.getParsedSpecs().number("performance");
+        if (!Double.isNaN(productPerformance) && config.getTotalPerformance() != null) {
+            config.setTotalPerformance(config.getTotalPerformance() + productPerformance);
         }
         
-        // Проверяем совместимость всей конфигурации
-        config.setIsCompatible(validateConfiguration(config));
+        // Обновляем состояние инкрементально: проверяется только новая деталь
+        ConfigurationState updatedState = configurationStateRegistry.componentAdded(configId, product);
+        config.setIsCompatible(updatedState.isCompatible());
+        config.setPowerDraw(updatedState.getPowerDraw());
+        if (product.getComponentType() == ComponentType.PSU) {
+            config.setPsuWattage(powerCalculator.findPsuWattage(List.of(product)));
+        }
         
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config, updatedState.getProducts());
     }
 
     /**
@@ -261,23 +385,23 @@ public class ConfiguratorService {
         config.setTotalPrice(config.getTotalPrice().subtract(component.getProduct().getPrice()));
         
         // Обновляем производительность если у продукта есть такая характеристика
-        try {
-            Double currentPerformance = config.getTotalPerformance();
-            String performanceStr = component.getProduct().getSpec("performance");
-            if (performanceStr != null && !performanceStr.isEmpty()) {
-                double productPerformance = Double.parseDouble(performanceStr);
-                config.setTotalPerformance(currentPerformance - productPerformance);
-            }
-        } catch (Exception e) {
-            // Если характеристики нет или она не числовая, игнорируем
+        // Если характеристики нет или она не числовая, игнорируем
+        double productPerformance = component.getProduct().getParsedSpecs().number("performance");
+        if (!Double.isNaN(productPerformance) && config.getTotalPerformance() != null) {
+            config.setTotalPerformance(config.getTotalPerformance() - productPerformance);
         }
         
         configComponentRepository.delete(component);
         
-        // Проверяем совместимость оставшейся конфигурации
-        config.setIsCompatible(validateConfiguration(config));
+        // Обновляем состояние инкрементально: отбрасываются только пары с удаленной деталью
+        ConfigurationState updatedState = configurationStateRegistry.componentRemoved(configId, productId);
+        config.setIsCompatible(updatedState.isCompatible());
+        config.setPowerDraw(updatedState.getPowerDraw());
+        if (component.getProduct().getComponentType() == ComponentType.PSU) {
+            config.setPsuWattage(null);
+        }
         
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config, updatedState.getProducts());
     }
 
     // Проверка совместимости
@@ -292,16 +416,11 @@ public class ConfiguratorService {
             return true; // Один компонент всегда совместим сам с собой
         }
         
-        // Проверяем совместимость каждого компонента с каждым
-        for (int i = 0; i < components.size(); i++) {
-            for (int j = i + 1; j < components.size(); j++) {
-                if (!compatibilityService.checkComponentsCompatibility(
-                        components.get(i).getProduct(), components.get(j).getProduct())) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        // Проверяем совместимость всех пар одним пакетом
+        List<Product> products = components.stream()
+            .map(ConfigComponent::getProduct)
+            .toList();
+        return compatibilityService.checkProductsCompatibility(products, false).isCompatible();
     }
     
     /**
@@ -354,56 +473,51 @@ public class ConfiguratorService {
         PCConfiguration config = pcConfigurationRepository.findById(configId)
             .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
         
-        List<ConfigComponent> existingComponents = configComponentRepository.findByConfigId(configId);
-        List<Product> allComponentsOfType = productRepository.findByComponentType(type);
-        
-        return allComponentsOfType.stream()
-            .filter(product -> compatibilityService.isCompatibleWithConfiguration(product, existingComponents))
+        List<Product> existingProducts = configComponentRepository.findByConfigId(configId).stream()
+            .map(ConfigComponent::getProduct)
             .toList();
+        
+        // Пересекаем строки матрицы совместимости уже выбранных компонентов
+        return compatibilityMatrix.findCompatible(existingProducts, type);
     }
     
     /**
-     * Получает все конфигурации пользователя
-     * @param userId ID пользователя
-     * @return список конфигураций
+     * Получает полные конфигурации (содержащие все необходимые компоненты)
+     * @return список полных конфигураций
      */
-    public List<PCConfiguration> getUserConfigurations(Long userId) {
-        return pcConfigurationRepository.findByUserId(userId);
+    public List<PCConfiguration> getCompleteConfigurations() {
+        return pcConfigurationRepository.findCompleteConfigurations();
     }
 
     /**
-     * Получает конфигурации в заданном диапазоне цен
-     * @param minPrice минимальная цена
-     * @param maxPrice максимальная цена
-     * @return список конфигураций
+     * Получает неполные конфигурации
+     * @return список неполных конфигураций
      */
-    public List<PCConfiguration> getConfigurationsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return pcConfigurationRepository.findByPriceRange(minPrice, maxPrice);
+    public List<PCConfiguration> getIncompleteConfigurations() {
+        return pcConfigurationRepository.findIncompleteConfigurations();
     }
 
     /**
-     * Получает конфигурации с минимальной производительностью
-     * @param minPerformance минимальная производительность
+     * Получает конфигурации, в которых нет компонента указанного типа
+     * @param type тип компонента
      * @return список конфигураций
      */
-    public List<PCConfiguration> getConfigurationsByPerformance(Double minPerformance) {
-        return pcConfigurationRepository.findByMinPerformance(minPerformance);
+    public List<PCConfiguration> getConfigurationsMissingType(ComponentType type) {
+        return pcConfigurationRepository.findMissingComponentType(type.getMask());
     }
 
     /**
-     * Получает полные конфигурации (содержащие все необходимые компоненты)
-     * @return список полных конфигураций
+     * Подсчитывает, в скольких конфигурациях нет компонента каждого обязательного типа
+     * @return количество конфигураций по типам
      */
-    public List<PCConfiguration> getCompleteConfigurations() {
-        return pcConfigurationRepository.findCompleteConfigurations(ComponentType.values().length);
-    }
-
-    /**
-     * Получает неполные конфигурации
-     * @return список неполных конфигураций
-     */
-    public List<PCConfiguration> getIncompleteConfigurations() {
-        return pcConfigurationRepository.findIncompleteConfigurations(ComponentType.values().length);
+    public Map<ComponentType, Long> countConfigurationsMissingRequiredTypes() {
+        Map<ComponentType, Long> counts = new EnumMap<>(ComponentType.class);
+        for (ComponentType type : ComponentType.values()) {
+            if (type.isRequired()) {
+                counts.put(type, pcConfigurationRepository.countMissingComponentType(type.getMask()));
+            }
+        }
+        return counts;
     }
 
     /**
@@ -415,6 +529,61 @@ public class ConfiguratorService {
         PCConfiguration config = pcConfigurationRepository.findById(configId)
             .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
         pcConfigurationRepository.delete(config);
+        configurationStateRegistry.evictAfterCompletion(configId);
+    }
+
+    /**
+     * Запускает пересчет сохраненного потребления и мощности БП конфигураций с измененным товаром
+     * (например, после правки TDP). Пересчет выполняется в пуле конфигуратора и не задерживает
+     * запрос, изменивший товар; повторные изменения товара до начала пересчета объединяются.
+     * Кеш потребления в PowerCalculator к этому моменту уже сброшен
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Новый товар еще не входит ни в одну конфигурацию
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.CREATED) {
+            return;
+        }
+        Long productId = event.getProductId();
+        if (powerRefreshPending.add(productId)) {
+            configuratorExecutor.execute(() -> {
+                powerRefreshPending.remove(productId);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> refreshPowerDraw(productId));
+                } catch (RuntimeException e) {
+                    log.error("Не удалось пересчитать потребление конфигураций с товаром {}", productId, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Пересчитывает потребление и мощность БП конфигураций, в которые входит товар;
+     * сохраняются только изменившиеся значения
+     */
+    private void refreshPowerDraw(Long productId) {
+        List<Long> configIds = pcConfigurationRepository.findIdsByProductId(productId);
+        int updated = 0;
+        for (int from = 0; from < configIds.size(); from += POWER_REFRESH_BATCH_SIZE) {
+            List<Long> batch = configIds.subList(from, Math.min(from + POWER_REFRESH_BATCH_SIZE, configIds.size()));
+            for (PCConfiguration config : pcConfigurationRepository.findWithComponentsByIdIn(batch)) {
+                List<Product> products = config.getComponents().stream()
+                    .map(ConfigComponent::getProduct)
+                    .toList();
+                int powerDraw = powerCalculator.getTotalPower(products);
+                Integer psuWattage = powerCalculator.findPsuWattage(products);
+                if (!Objects.equals(config.getPowerDraw(), powerDraw) || !Objects.equals(config.getPsuWattage(), psuWattage)) {
+                    config.setPowerDraw(powerDraw);
+                    config.setPsuWattage(psuWattage);
+                    configurationSummaryService.refresh(config, products);
+                    updated++;
+                }
+            }
+        }
+        if (updated > 0) {
+            log.debug("Пересчитано потребление {} конфигураций после изменения товара {}", updated, productId);
+        }
     }
 
     // Расчеты и статистика
@@ -424,63 +593,172 @@ public class ConfiguratorService {
      * @return общее энергопотребление в ваттах
      */
     public Integer calculatePowerRequirement(Long configId) {
-        List<ConfigComponent> components = configComponentRepository.findByConfigId(configId);
-        int totalPower = 0;
+        // Потребление хранится в конфигурации и обновляется при изменении состава
+        return pcConfigurationRepository.findPowerDrawById(configId)
+            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
+    }
+    
+    /**
+     * Возвращает бюджет мощности конфигурации: потребление, мощность и запас БП
+     * @param configId ID конфигурации
+     * @return бюджет мощности
+     */
+    public PowerBudgetDto getPowerBudget(Long configId) {
+        PCConfiguration config = pcConfigurationRepository.findById(configId)
+            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
         
-        for (ConfigComponent component : components) {
-            try {
-                Product product = component.getProduct();
-                
-                // ИСКЛЮЧАЕМ БП из расчета потребления - БП поставляет энергию, а не потребляет!
-                if (product.getComponentType() == ComponentType.PSU) {
-                    continue; // Пропускаем БП
+        int powerDraw = config.getPowerDraw() != null ? config.getPowerDraw() : 0;
+        return buildPowerBudget(powerDraw, config.getPsuWattage());
+    }
+    
+    // Моделирование изменений
+    /**
+     * Моделирует изменения конфигурации без сохранения: для каждого сценария
+     * применяет замены к исходному составу и считает стоимость, производительность,
+     * потребление и совместимость, а также их разницу с исходной конфигурацией
+     * @param configId ID конфигурации
+     * @param request сценарии изменений
+     * @return показатели исходной конфигурации и результаты по сценариям
+     */
+    @Transactional(readOnly = true)
+    public ConfigurationSimulationResult simulateConfiguration(Long configId, ConfigurationSimulationRequest request) {
+        if (!pcConfigurationRepository.existsById(configId)) {
+            throw new ResourceNotFoundException("Configuration", "id", configId);
+        }
+        
+        List<Product> baseProducts = configurationStateRegistry.get(configId).getProducts();
+        List<ConfigurationSimulationRequest.Scenario> scenarios =
+            request.getScenarios() != null ? request.getScenarios() : List.of();
+        
+        // Товары всех сценариев загружаются одним запросом; отсутствующий товар
+        // делает ошибочным только тот сценарий, в котором он указан
+        Set<Long> productIds = new HashSet<>();
+        for (ConfigurationSimulationRequest.Scenario scenario : scenarios) {
+            if (scenario.getSwaps() == null) {
+                continue;
+            }
+            for (ConfigurationSimulationRequest.Swap swap : scenario.getSwaps()) {
+                if (swap.getProductId() != null) {
+                    productIds.add(swap.getProductId());
                 }
-                
-                String powerSpec = null;
-                
-                // Для всех компонентов кроме БП ищем энергопотребление
-                powerSpec = product.getSpec("power_consumption");
-                if (powerSpec == null || powerSpec.isEmpty()) {
-                    powerSpec = product.getSpec("tdp");
+            }
+        }
+        Map<Long, Product> catalog = new HashMap<>(productIds.size() * 2);
+        for (Product product : productRepository.findAllById(productIds)) {
+            catalog.put(product.getId(), product);
+        }
+        
+        ConfigurationSimulationResult.Totals baseline =
+            evaluateTotals(baseProducts, compatibilityService.checkProductsCompatibility(baseProducts, false));
+        
+        List<ConfigurationSimulationResult.ScenarioResult> results = new ArrayList<>(scenarios.size());
+        for (ConfigurationSimulationRequest.Scenario scenario : scenarios) {
+            List<Product> products;
+            try {
+                products = applySwaps(baseProducts, scenario.getSwaps(), catalog);
+            } catch (IllegalStateException e) {
+                results.add(ConfigurationSimulationResult.ScenarioResult.builder()
+                    .name(scenario.getName())
+                    .error(e.getMessage())
+                    .build());
+                continue;
+            }
+            
+            ConfigurationVerdict verdict =
+                compatibilityService.checkProductsCompatibility(products, request.isIncludeReasons());
+            ConfigurationSimulationResult.Totals totals = evaluateTotals(products, verdict);
+            results.add(ConfigurationSimulationResult.ScenarioResult.builder()
+                .name(scenario.getName())
+                .totals(totals)
+                .priceDelta(totals.getTotalPrice().subtract(baseline.getTotalPrice()))
+                .performanceDelta(totals.getTotalPerformance() - baseline.getTotalPerformance())
+                .powerDrawDelta(totals.getPower().getPowerDraw() - baseline.getPower().getPowerDraw())
+                .incompatiblePairs(verdict.getIncompatiblePairs())
+                .build());
+        }
+        
+        return ConfigurationSimulationResult.builder()
+            .configId(configId)
+            .baseline(baseline)
+            .scenarios(results)
+            .build();
+    }
+    
+    /**
+     * Применяет изменения сценария к копии состава конфигурации
+     * @throws IllegalStateException если изменение нельзя применить
+     */
+    private List<Product> applySwaps(List<Product> baseProducts, List<ConfigurationSimulationRequest.Swap> swaps,
+                                     Map<Long, Product> catalog) {
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (Product product : baseProducts) {
+            products.put(product.getId(), product);
+        }
+        
+        if (swaps == null) {
+            return new ArrayList<>(products.values());
+        }
+        for (ConfigurationSimulationRequest.Swap swap : swaps) {
+            if (swap.getAction() == null || swap.getProductId() == null) {
+                throw new IllegalStateException("Для изменения не указано действие или товар");
+            }
+            Product product = catalog.get(swap.getProductId());
+            if (product == null) {
+                throw new IllegalStateException("Товар " + swap.getProductId() + " не найден");
+            }
+            ComponentType type = product.getComponentType();
+            switch (swap.getAction()) {
+                case ADD -> {
+                    boolean typePresent = type != null && products.values().stream()
+                        .anyMatch(existing -> existing.getComponentType() == type);
+                    if (typePresent || products.containsKey(product.getId())) {
+                        throw new IllegalStateException("Компонент типа " + type + " уже есть в конфигурации");
+                    }
+                    products.put(product.getId(), product);
                 }
-                if (powerSpec == null || powerSpec.isEmpty()) {
-                    powerSpec = product.getSpec("power");
+                case REPLACE -> {
+                    if (type != null) {
+                        products.values().removeIf(existing -> existing.getComponentType() == type);
+                    }
+                    products.put(product.getId(), product);
                 }
-                
-                if (powerSpec != null && !powerSpec.isEmpty()) {
-                    int componentPower = Integer.parseInt(powerSpec);
-                    totalPower += componentPower;
-                    log.debug("Компонент {}: {}Вт", product.getTitle(), componentPower);
-                } else {
-                    // Добавляем базовое потребление для компонентов без указанного TDP
-                    int basePower = getBasePowerConsumption(product.getComponentType());
-                    totalPower += basePower;
-                    log.debug("Компонент {} (базовое потребление): {}Вт", product.getTitle(), basePower);
+                case REMOVE -> {
+                    if (products.remove(product.getId()) == null) {
+                        throw new IllegalStateException("Товар " + product.getId() + " отсутствует в конфигурации");
+                    }
                 }
-            } catch (Exception e) {
-                log.warn("Ошибка при расчете мощности для компонента: {}", e.getMessage());
             }
         }
-        
-        log.info("Общее энергопотребление конфигурации {}: {}Вт", configId, totalPower);
-        return totalPower;
+        return new ArrayList<>(products.values());
     }
     
     /**
-     * Возвращает базовое энергопотребление для типа компонента
+     * Считает показатели набора компонентов так же, как при сохранении конфигурации
      */
-    private int getBasePowerConsumption(ComponentType componentType) {
-        switch (componentType) {
-            case CPU: return 100; // Базовое потребление процессора
-            case GPU: return 200; // Базовое потребление видеокарты  
-            case RAM: return 5;   // Потребление модуля памяти
-            case MB: return 30;   // Потребление материнской платы
-            case STORAGE: return 10; // Потребление накопителя
-            case COOLER: return 5;   // Потребление системы охлаждения
-            case CASE: return 0;     // Корпус не потребляет энергию
-            case PSU: return 0;      // БП не потребляет энергию
-            default: return 10;      // Для неизвестных компонентов
+    private ConfigurationSimulationResult.Totals evaluateTotals(List<Product> products, ConfigurationVerdict verdict) {
+        int typeMask = ComponentType.maskOf(products.stream().map(Product::getComponentType).toList());
+        boolean complete = (typeMask & ComponentType.requiredMask()) == ComponentType.requiredMask();
+        return ConfigurationSimulationResult.Totals.builder()
+            .productIds(products.stream().map(Product::getId).toList())
+            .totalPrice(sumPrice(products))
+            .totalPerformance(sumPerformance(products))
+            .isCompatible(products.isEmpty() || (complete && verdict.isCompatible()))
+            .isComplete(complete)
+            .power(buildPowerBudget(powerCalculator.getTotalPower(products), powerCalculator.findPsuWattage(products)))
+            .build();
+    }
+    
+    private PowerBudgetDto buildPowerBudget(int powerDraw, Integer psuWattage) {
+        PowerBudgetDto.PowerBudgetDtoBuilder budget = PowerBudgetDto.builder()
+            .powerDraw(powerDraw)
+            .psuWattage(psuWattage)
+            .recommendedPsuWattage(powerCalculator.getRecommendedPsuWattage(powerDraw));
+        if (psuWattage != null) {
+            budget.headroom(psuWattage - powerDraw)
+                .loadPercent((double) powerDraw / psuWattage * 100)
+                .headroomBelowMargin(powerCalculator.isHeadroomBelowMargin(powerDraw, psuWattage));
         }
+        return budget.build();
     }
     
     /**
@@ -500,12 +778,12 @@ public class ConfiguratorService {
      * @param configId ID конфигурации
      * @return карта со спецификациями
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> getConfigurationSpecs(Long configId) {
-        PCConfiguration config = pcConfigurationRepository.findById(configId)
-            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
+        PCConfiguration config = loadSavedConfiguration(configId);
             
         Map<String, Object> specs = new HashMap<>();
-        List<ConfigComponent> components = configComponentRepository.findByConfigId(configId);
+        Set<ConfigComponent> components = config.getComponents();
         
         // Общая информация
         specs.put("id", config.getId());
@@ -525,7 +803,7 @@ public class ConfiguratorService {
             componentInfo.put("id", product.getId());
             componentInfo.put("name", product.getName());
             componentInfo.put("price", product.getPrice());
-            componentInfo.put("manufacturer", product.getManufacturer().getName());
+            componentInfo.put("manufacturer", product.getManufacturer() != null ? product.getManufacturer().getName() : "");
             componentInfo.put("specs", product.getSpecifications());
             
             componentsMap.put(product.getComponentType(), componentInfo);
@@ -540,124 +818,73 @@ public class ConfiguratorService {
     /**
      * Получает рекомендуемые компоненты для добавления в конфигурацию
      * @param configId ID конфигурации
-     * @return карта с рекомендуемыми компонентами по типам
+     * @return карта с рекомендуемыми компонентами по недостающим типам
      */
     public Map<ComponentType, List<Product>> getRecommendedComponents(Long configId) {
-        PCConfiguration config = pcConfigurationRepository.findById(configId)
-            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
-            
-        Map<ComponentType, List<Product>> recommendations = new HashMap<>();
-        List<ConfigComponent> existingComponents = configComponentRepository.findByConfigId(configId);
-        
-        // Получаем список типов компонентов, которых нет в конфигурации
-        Set<ComponentType> presentTypes = existingComponents.stream()
-            .map(c -> c.getProduct().getComponentType())
-            .collect(HashSet::new, HashSet::add, HashSet::addAll);
-            
+        if (!pcConfigurationRepository.existsById(configId)) {
+            throw new ResourceNotFoundException("Configuration", "id", configId);
+        }
+
+        ConfigurationState state = configurationStateRegistry.get(configId);
+
+        // Рекомендации подбираются только для недостающих комплектующих ПК, периферия не учитывается
+        EnumSet<ComponentType> missingTypes = EnumSet.noneOf(ComponentType.class);
         for (ComponentType type : ComponentType.values()) {
-            if (!presentTypes.contains(type)) {
-                List<Product> compatibleProducts = getCompatibleComponents(configId, type);
-                recommendations.put(type, compatibleProducts);
+            if (type.isPcComponent() && !state.hasType(type)) {
+                missingTypes.add(type);
             }
         }
-        
-        return recommendations;
+
+        return componentRecommendationService.recommend(state.getProducts(), missingTypes);
     }
     
     /**
      * Получает рекомендуемые конфигурации по назначению и бюджету
      * @param purpose назначение (игры, работа и т.д.)
      * @param budget бюджет
-     * @return список рекомендуемых конфигураций
+     * @return список подобранных конфигураций (не сохранены), лучшие по производительности первыми
      */
     public List<PCConfiguration> getRecommendedConfigurations(String purpose, double budget) {
-        // Заглушка для демонстрации
-        // В реальном приложении здесь должна быть логика рекомендаций
-        return pcConfigurationRepository.findByPriceRange(
-            BigDecimal.ZERO, 
-            BigDecimal.valueOf(budget)
-        );
-    }
-    
-    // Импорт/экспорт
-    /**
-     * Экспортирует конфигурацию в строковый формат
-     * @param configId ID конфигурации
-     * @return строковое представление конфигурации
-     */
-    public String exportConfiguration(Long configId) {
-        PCConfiguration config = pcConfigurationRepository.findById(configId)
-            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
-            
-        Map<String, Object> configData = getConfigurationSpecs(configId);
-        
-        // В реальном приложении здесь должно быть преобразование в JSON
-        return configData.toString();
+        return configurationAutoBuilder.build(purpose, budget);
     }
     
+    // Клонирование
     /**
-     * Импортирует конфигурацию из строкового формата
+     * Клонирует существующую конфигурацию для другого пользователя.
+     * Конфигурация, компоненты и сводка копируются одним запросом, итоги не пересчитываются
+     * @param configId ID исходной конфигурации
      * @param userId ID пользователя
-     * @param jsonConfig строковое представление конфигурации
-     * @return импортированная конфигурация
+     * @return клонированная конфигурация
      */
     @Transactional
-    public PCConfiguration importConfiguration(Long userId, String jsonConfig) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-            
-        // В реальном приложении здесь должен быть парсинг JSON и создание конфигурации
-        
-        PCConfiguration config = new PCConfiguration();
-        config.setUser(user);
-        config.setName("Imported Configuration");
-        config.setDescription("Imported from external source");
-        config.setTotalPrice(BigDecimal.ZERO);
-        config.setTotalPerformance(0.0);
+    public PCConfiguration cloneConfiguration(Long configId, Long userId) {
+        if (!pcConfigurationRepository.existsById(configId)) {
+            throw new ResourceNotFoundException("Configuration", "id", configId);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
         
-        return pcConfigurationRepository.save(config);
+        List<Long> cloneIds = pcConfigurationRepository.cloneToUsers(configId, List.of(userId), " (Clone)");
+        return loadSavedConfiguration(cloneIds.get(0));
     }
     
-    // Клонирование
     /**
-     * Клонирует существующую конфигурацию для другого пользователя
-     * @param configId ID исходной конфигурации
-     * @param userId ID пользователя
-     * @return клонированная конфигурация
+     * Копирует шаблонную конфигурацию сразу многим пользователям (например, для маркетинговых подборок).
+     * Несуществующие пользователи пропускаются
+     * @param templateId ID шаблонной конфигурации
+     * @param userIds ID пользователей
+     * @return ID созданных конфигураций
      */
     @Transactional
-    public PCConfiguration cloneConfiguration(Long configId, Long userId) {
-        PCConfiguration source = pcConfigurationRepository.findById(configId)
-            .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
-            
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-            
-        // Создаем новую конфигурацию
-        PCConfiguration clone = new PCConfiguration();
-        clone.setUser(user);
-        clone.setName(source.getName() + " (Clone)");
-        clone.setDescription(source.getDescription());
-        clone.setTotalPrice(source.getTotalPrice());
-        clone.setTotalPerformance(source.getTotalPerformance());
-        clone.setIsCompatible(source.getIsCompatible());
-        
-        PCConfiguration savedClone = pcConfigurationRepository.save(clone);
-        
-        // Копируем компоненты
-        List<ConfigComponent> sourceComponents = configComponentRepository.findByConfigId(configId);
-        
-        for (ConfigComponent sourceComponent : sourceComponents) {
-            ConfigComponent cloneComponent = new ConfigComponent();
-            ConfigComponentId componentId = new ConfigComponentId(savedClone.getId(), sourceComponent.getProduct().getId());
-            cloneComponent.setId(componentId);
-            cloneComponent.setConfiguration(savedClone);
-            cloneComponent.setProduct(sourceComponent.getProduct());
-            
-            configComponentRepository.save(cloneComponent);
+    public List<Long> cloneConfigurationToUsers(Long templateId, List<Long> userIds) {
+        if (!pcConfigurationRepository.existsById(templateId)) {
+            throw new ResourceNotFoundException("Configuration", "id", templateId);
         }
         
-        return savedClone;
+        List<Long> cloneIds = pcConfigurationRepository.cloneToUsers(templateId, userIds, "");
+        log.info("Шаблон {} скопирован {} пользователям из {}", templateId, cloneIds.size(), userIds.size());
+        return cloneIds;
     }
     
     // Наличие компонентов
@@ -697,71 +924,15 @@ public class ConfiguratorService {
     }
 
     /**
-     * Проверяет валидность конфигурации
-     * @param config конфигурация для проверки
-     * @return true если конфигурация валидна, иначе false
-     */
-    private boolean validateConfiguration(PCConfiguration config) {
-        List<ConfigComponent> components = configComponentRepository.findByConfigId(config.getId());
-        
-        // Если компонентов нет, считаем, что конфигурация валидна
-        if (components.isEmpty()) {
-            return true;
-        }
-        
-        // Проверяем наличие всех необходимых компонентов
-        Set<ComponentType> requiredTypes = Arrays.stream(ComponentType.values())
-            .filter(ComponentType::isRequired)
-            .collect(HashSet::new, HashSet::add, HashSet::addAll);
-            
-        Set<ComponentType> presentTypes = components.stream()
-            .map(c -> c.getProduct().getComponentType())
-            .collect(HashSet::new, HashSet::add, HashSet::addAll);
-        
-        if (!presentTypes.containsAll(requiredTypes)) {
-            return false;
-        }
-
-        // Проверяем совместимость между всеми компонентами
-        for (int i = 0; i < components.size(); i++) {
-            for (int j = i + 1; j < components.size(); j++) {
-                if (!compatibilityService.checkComponentsCompatibility(
-                    components.get(i).getProduct(),
-                    components.get(j).getProduct())) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * Загружает сохраненную конфигурацию в конфигуратор
+     * Загружает сохраненную конфигурацию в конфигуратор.
+     * Конфигурация, ее компоненты, товары, производители и категории выбираются одним запросом.
      * @param configId ID сохраненной конфигурации
      * @return Загруженная конфигурация с полной информацией о продуктах
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public PCConfiguration loadSavedConfiguration(Long configId) {
-        PCConfiguration config = pcConfigurationRepository.findById(configId)
+        return pcConfigurationRepository.findWithComponentsById(configId)
             .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
-        
-        // Загружаем все компоненты конфигурации с полной информацией о продуктах
-        List<ConfigComponent> components = configComponentRepository.findByConfigId(configId);
-        
-        // Убедимся, что все продукты полностью загружены (решение проблемы с "подсосом продуктов")
-        for (ConfigComponent component : components) {
-            Product product = productRepository.findById(component.getProduct().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", component.getProduct().getId()));
-            
-            // Обновляем ссылку на продукт в компоненте
-            component.setProduct(product);
-        }
-        
-        // Обновляем ссылки на компоненты в конфигурации
-        config.setComponents(new HashSet<>(components));
-        
-        return config;
     }
 
     /**
@@ -781,14 +952,6 @@ public class ConfiguratorService {
         return result;
     }
 
-    /**
-     * Получает список публичных конфигураций
-     * @return список публичных конфигураций
-     */
-    public List<PCConfiguration> getPublicConfigurations() {
-        return pcConfigurationRepository.findByIsPublicTrue();
-    }
-
     /**
      * Переключает статус публикации конфигурации
      * @param configId ID конфигурации
@@ -806,6 +969,53 @@ public class ConfiguratorService {
         log.info("Toggling publication status for configuration {}: {} -> {}", 
             configId, currentPublicStatus, !currentPublicStatus);
             
-        return pcConfigurationRepository.save(config);
+        return saveWithSummary(config);
+    }
+
+    /**
+     * Сохраняет конфигурацию и пересчитывает ее сводку по состоянию из реестра
+     */
+    private PCConfiguration saveWithSummary(PCConfiguration config) {
+        PCConfiguration saved = pcConfigurationRepository.save(config);
+        configurationSummaryService.refresh(saved);
+        return saved;
+    }
+
+    /**
+     * Сохраняет конфигурацию и пересчитывает ее сводку по известному составу
+     */
+    private PCConfiguration saveWithSummary(PCConfiguration config, List<Product> products) {
+        config.setComponentTypes(ComponentType.maskOf(products.stream().map(Product::getComponentType).toList()));
+        PCConfiguration saved = pcConfigurationRepository.save(config);
+        configurationSummaryService.refresh(saved, products);
+        return saved;
+    }
+
+    /**
+     * Суммарная стоимость товаров (товары без цены не учитываются)
+     */
+    private static BigDecimal sumPrice(Collection<Product> products) {
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (Product product : products) {
+            if (product.getPrice() != null) {
+                totalPrice = totalPrice.add(product.getPrice());
+            }
+        }
+        return totalPrice;
+    }
+
+    /**
+     * Суммарная производительность товаров.
+     * Если характеристики нет или она не числовая, товар не учитывается
+     */
+    private static double sumPerformance(Collection<Product> products) {
+        double totalPerformance = 0.0;
+        for (Product product : products) {
+            double productPerformance = product.getParsedSpecs().number("performance");
+            if (!Double.isNaN(productPerformance)) {
+                totalPerformance += productPerformance;
+            }
+        }
+        return totalPerformance;
     }
-} 
\ No newline at end of file
+}
@@ -26,6 +26,8 @@ public class ConfiguratorServiceFixed {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final ComponentCompatibilityService compatibilityService;
+    private final ConfigurationSummaryService configurationSummaryService;
+    private final PowerCalculator powerCalculator;
     private static final Logger log = LoggerFactory.getLogger(ConfiguratorServiceFixed.class);
 
     /**
@@ -49,8 +51,11 @@ public class ConfiguratorServiceFixed {
         config.setTotalPrice(BigDecimal.ZERO);
         config.setTotalPerformance(0.0);
         config.setIsCompatible(true);
+        config.setComponentTypes(0);
         
-        return pcConfigurationRepository.save(config);
+        PCConfiguration savedConfig = pcConfigurationRepository.save(config);
+        configurationSummaryService.refresh(savedConfig, List.of());
+        return savedConfig;
     }
 
     /**
@@ -73,25 +78,26 @@ public class ConfiguratorServiceFixed {
         config.setName(name);
         config.setDescription(description);
         config.setCategory(category);
-        config.setTotalPrice(BigDecimal.ZERO);
-        config.setTotalPerformance(0.0);
-        config.setIsCompatible(true);
         config.setComponents(new HashSet<>());
         
-        // Сохраняем конфигурацию для получения ID
-        PCConfiguration savedConfig = pcConfigurationRepository.save(config);
-        final Long configId = savedConfig.getId();
+        // Получаем все продукты одним запросом
+        Map<Long, Product> productsMap = new HashMap<>();
+        for (Product product : productRepository.findAllById(componentIds)) {
+            productsMap.put(product.getId(), product);
+        }
         
         // Собираем информацию о компонентах и считаем общую цену
         BigDecimal totalPrice = BigDecimal.ZERO;
         double totalPerformance = 0.0;
         
-        // Получаем продукты заранее
-        Map<Long, Product> productsMap = new HashMap<>();
-        for (Long productId : componentIds) {
-            Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
-            productsMap.put(productId, product);
+        // Повторяющиеся ID добавляются один раз (первичный ключ - пара конфигурация/товар)
+        List<Long> productIds = new ArrayList<>();
+        for (Long productId : new LinkedHashSet<>(componentIds)) {
+            Product product = productsMap.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            productIds.add(productId);
             
             // Суммируем цену
             if (product.getPrice() != null) {
@@ -99,50 +105,36 @@ public class ConfiguratorServiceFixed {
             }
             
             // Суммируем производительность
-            try {
-                String performanceStr = product.getSpec("performance");
-                if (performanceStr != null && !performanceStr.isEmpty()) {
-                    double productPerformance = Double.parseDouble(performanceStr);
-                    totalPerformance += productPerformance;
-                }
-            } catch (Exception e) {
-                // Если характеристики нет или она не числовая, игнорируем
+            // Если характеристики нет или она не числовая, игнорируем
+            double productPerformance = product.getParsedSpecs().number("performance");
+            if (!Double.isNaN(productPerformance)) {
+                totalPerformance += productPerformance;
             }
         }
         
-        // Обновляем общую цену и производительность
-        savedConfig.setTotalPrice(totalPrice);
-        savedConfig.setTotalPerformance(totalPerformance);
+        // Итоги известны заранее - конфигурация сохраняется одним INSERT
+        config.setTotalPrice(totalPrice);
+        config.setTotalPerformance(totalPerformance);
+        List<Product> products = productIds.stream().map(productsMap::get).toList();
+        int componentTypes = ComponentType.maskOf(products.stream().map(Product::getComponentType).toList());
+        config.setComponentTypes(componentTypes);
         
-        // Сохраняем обновленную конфигурацию
-        pcConfigurationRepository.save(savedConfig);
-        
-        // Добавляем компоненты по одному, используя метод addComponent
-        for (Long productId : componentIds) {
-            try {
-                Product product = productsMap.get(productId);
-                
-                ConfigComponentId componentId = new ConfigComponentId(configId, productId);
-                ConfigComponent component = new ConfigComponent();
-                component.setId(componentId);
-                component.setProduct(product);
-                
-                // Используем метод addComponent для установки двусторонней связи
-                savedConfig.addComponent(component);
-                
-                // Сохраняем компонент
-                configComponentRepository.save(component);
-            } catch (Exception e) {
-                log.warn("Не удалось добавить компонент {} в конфигурацию {}: {}", 
-                    productId, configId, e.getMessage(), e);
-            }
-        }
+        // Совместимость: все обязательные типы и одна попарная проверка всего набора
+        boolean compatible = products.isEmpty()
+            || ((componentTypes & ComponentType.requiredMask()) == ComponentType.requiredMask()
+                && compatibilityService.checkProductsCompatibility(products, false).isCompatible());
+        config.setIsCompatible(compatible);
+        config.setPowerDraw(powerCalculator.getTotalPower(products));
+        config.setPsuWattage(powerCalculator.findPsuWattage(products));
+        PCConfiguration savedConfig = pcConfigurationRepository.save(config);
+        final Long configId = savedConfig.getId();
+        configurationSummaryService.refresh(savedConfig, products);
         
-        // Сохраняем конфигурацию с компонентами
-        PCConfiguration updatedConfig = pcConfigurationRepository.save(savedConfig);
+        // Компоненты вставляются одним JDBC-пакетом
+        configComponentRepository.insertComponents(savedConfig, productIds);
         
-        // Загружаем конфигурацию заново с компонентами
-        return pcConfigurationRepository.findById(configId)
+        // Загружаем конфигурацию заново с компонентами одним запросом
+        return pcConfigurationRepository.findWithComponentsById(configId)
             .orElseThrow(() -> new ResourceNotFoundException("Configuration", "id", configId));
     }
 } 
\ No newline at end of file
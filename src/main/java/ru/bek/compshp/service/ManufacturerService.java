@@ -1,6 +1,7 @@
 package ru.bek.compshp.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -79,6 +80,7 @@ public class ManufacturerService {
      * Обновить производителя
      */
     @Transactional
+    @CacheEvict(value = ProductService.PC_COMPONENT_PRODUCTS_CACHE, allEntries = true)
     public Manufacturer updateManufacturer(Long id, Manufacturer manufacturer) {
         return manufacturerRepository.findById(id)
             .map(existingManufacturer -> {
@@ -146,6 +148,7 @@ public class ManufacturerService {
      * Сохранить производителя
      */
     @Transactional
+    @CacheEvict(value = ProductService.PC_COMPONENT_PRODUCTS_CACHE, allEntries = true)
     public Manufacturer saveManufacturer(Manufacturer manufacturer) {
         return manufacturerRepository.save(manufacturer);
     }
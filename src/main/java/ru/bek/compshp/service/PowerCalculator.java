@@ -0,0 +1,170 @@
+package ru.bek.compshp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.ParsedSpecs;
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Расчет энергопотребления компонентов и мощности блоков питания.
+ * Потребление каждого товара вычисляется один раз и кешируется по ID
+ * до изменения товара.
+ */
+@Slf4j
+@Component
+public class PowerCalculator {
+
+    private final Map<Long, Integer> componentPower = new ConcurrentHashMap<>();
+
+    /**
+     * Минимальный запас мощности БП как доля его номинала
+     */
+    @Value("${app.configurator.psu-headroom-margin:0.2}")
+    private double headroomMargin;
+
+    /**
+     * Возвращает энергопотребление компонента.
+     * Ищет power_consumption, затем tdp, затем power; если характеристик нет,
+     * используется базовое потребление для типа. БП энергию не потребляет.
+     * @param product компонент
+     * @return потребление в ваттах
+     */
+    public int getComponentPower(Product product) {
+        if (product.getId() == null) {
+            return computeComponentPower(product);
+        }
+        return componentPower.computeIfAbsent(product.getId(), id -> computeComponentPower(product));
+    }
+
+    /**
+     * Возвращает суммарное потребление компонентов (без БП)
+     */
+    public int getTotalPower(Collection<Product> products) {
+        int total = 0;
+        for (Product product : products) {
+            total += getComponentPower(product);
+        }
+        return total;
+    }
+
+    /**
+     * Находит мощность блока питания среди компонентов
+     * @return мощность в ваттах или null, если БП нет или его мощность не указана
+     */
+    public Integer findPsuWattage(Collection<Product> products) {
+        for (Product product : products) {
+            if (product.getComponentType() == ComponentType.PSU) {
+                int wattage = getPsuWattage(product);
+                return wattage > 0 ? wattage : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает минимальный допустимый запас мощности для БП
+     * @param psuWattage мощность БП
+     * @return запас в ваттах
+     */
+    public int getRequiredHeadroom(int psuWattage) {
+        return (int) Math.ceil(psuWattage * headroomMargin);
+    }
+
+    /**
+     * Проверяет, меньше ли запас мощности БП настроенного минимума
+     * @param powerDraw потребление конфигурации
+     * @param psuWattage мощность БП
+     */
+    public boolean isHeadroomBelowMargin(int powerDraw, int psuWattage) {
+        return psuWattage - powerDraw < getRequiredHeadroom(psuWattage);
+    }
+
+    /**
+     * Рекомендуемая мощность БП для заданного потребления с учетом запаса
+     */
+    public int getRecommendedPsuWattage(int powerDraw) {
+        return (int) Math.ceil(powerDraw / (1 - headroomMargin));
+    }
+
+    /**
+     * Сбрасывает закешированное потребление измененного товара.
+     * Выполняется раньше остальных обработчиков, которые пересчитывают потребление конфигураций
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        componentPower.remove(event.getProductId());
+    }
+
+    private int computeComponentPower(Product product) {
+        // ИСКЛЮЧАЕМ БП из расчета потребления - БП поставляет энергию, а не потребляет!
+        if (product.getComponentType() == ComponentType.PSU) {
+            return 0;
+        }
+
+        ParsedSpecs specs = product.getParsedSpecs();
+        SpecValue powerSpec = specs.get("power_consumption");
+        if (!powerSpec.isPresent()) {
+            powerSpec = specs.get("tdp");
+        }
+        if (!powerSpec.isPresent()) {
+            powerSpec = specs.get("power");
+        }
+
+        if (!powerSpec.isPresent()) {
+            // Базовое потребление для компонентов без указанного TDP
+            return getBasePowerConsumption(product.getComponentType());
+        }
+        if (!powerSpec.isInteger()) {
+            log.warn("Ошибка при расчете мощности для компонента {}: нечисловое значение '{}'",
+                    product.getTitle(), powerSpec.getRaw());
+            return 0;
+        }
+        return powerSpec.getIntValue();
+    }
+
+    /**
+     * Возвращает мощность блока питания (поле power, затем wattage)
+     * @param psu блок питания
+     * @return мощность в ваттах или -1, если она не указана или некорректна
+     */
+    public int getPsuWattage(Product psu) {
+        SpecValue wattage = psu.getParsedSpecs().get("power");
+        if (!wattage.isPresent()) {
+            wattage = psu.getParsedSpecs().get("wattage");
+        }
+        return wattage.isInteger() ? wattage.getIntValue() : -1;
+    }
+
+    /**
+     * Возвращает базовое энергопотребление для типа компонента
+     */
+    public int getBasePowerConsumption(ComponentType componentType) {
+        if (componentType == null) {
+            return 0;
+        }
+        switch (componentType) {
+            case CPU: return 100; // Базовое потребление процессора
+            case GPU: return 200; // Базовое потребление видеокарты
+            case RAM: return 5;   // Потребление модуля памяти
+            case MB: return 30;   // Потребление материнской платы
+            case STORAGE: return 10; // Потребление накопителя
+            case COOLER: return 5;   // Потребление системы охлаждения
+            case CASE: return 0;     // Корпус не потребляет энергию
+            case PSU: return 0;      // БП не потребляет энергию
+            default: return 10;      // Для неизвестных компонентов
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битовые индексы фасетов каталога.
+ * Каждый товар занимает позицию (номер бита); для каждого значения каждого фасета -
+ * тип компонента, категория, производитель, ценовой диапазон и ключи характеристик -
+ * хранится битовая строка товаров с этим значением.
+ *
+ * Внутри фасета выбранные значения объединяются (OR), между фасетами - пересекаются (AND).
+ * Количество для значения фасета считается с учетом фильтров всех остальных фасетов,
+ * поэтому выбор значения не обнуляет соседние значения того же фасета.
+ *
+ * Индекс строится при первом обращении; измененные товары обновляются перед следующим запросом.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    public static final String COMPONENT_TYPE = "componentType";
+    public static final String CATEGORY = "category";
+    public static final String MANUFACTURER = "manufacturer";
+    public static final String PRICE = "price";
+    public static final String SPEC_PREFIX = "specs.";
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Границы ценовых диапазонов (по возрастанию)
+     */
+    @Value("${app.catalog.facets.price-bounds:5000,10000,20000,50000,100000}")
+    private long[] priceBounds;
+
+    /**
+     * Ключи характеристик с большим числом значений (модели, серийные номера) не считаются
+     */
+    @Value("${app.catalog.facets.max-spec-values:100}")
+    private int maxSpecValues;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Long> productIds = new ArrayList<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet active = new BitSet();
+    private final Map<String, Map<String, BitSet>> facets = new LinkedHashMap<>();
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /**
+     * Отбирает товары по фильтрам и считает количество товаров для каждого значения фасетов
+     * @param filters выбранные значения по фасетам (фасеты без значений не фильтруют)
+     * @param activeOnly только активные товары
+     * @param offset сколько подходящих товаров пропустить
+     * @param limit сколько ID товаров вернуть
+     * @return ID товаров страницы, общее количество и счетчики фасетов
+     */
+    public FacetResult search(Map<String, ? extends Collection<String>> filters, boolean activeOnly,
+                              int offset, int limit) {
+        refresh();
+
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (activeOnly) {
+                base.and(active);
+            }
+
+            Map<String, BitSet> selections = new HashMap<>();
+            for (Map.Entry<String, ? extends Collection<String>> filter : filters.entrySet()) {
+                if (filter.getValue() == null || filter.getValue().isEmpty()) {
+                    continue;
+                }
+                Map<String, BitSet> values = facets.getOrDefault(filter.getKey(), Map.of());
+                BitSet selection = new BitSet();
+                for (String value : filter.getValue()) {
+                    BitSet bits = values.get(value);
+                    if (bits != null) {
+                        selection.or(bits);
+                    }
+                }
+                selections.put(filter.getKey(), selection);
+            }
+
+            BitSet matched = (BitSet) base.clone();
+            for (BitSet selection : selections.values()) {
+                matched.and(selection);
+            }
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, BitSet>> facet : facets.entrySet()) {
+                if (facet.getKey().startsWith(SPEC_PREFIX) && facet.getValue().size() > maxSpecValues) {
+                    continue;
+                }
+                // Для выбранного фасета его собственный фильтр не учитывается
+                BitSet mask = matched;
+                if (selections.containsKey(facet.getKey())) {
+                    mask = (BitSet) base.clone();
+                    for (Map.Entry<String, BitSet> selection : selections.entrySet()) {
+                        if (!selection.getKey().equals(facet.getKey())) {
+                            mask.and(selection.getValue());
+                        }
+                    }
+                }
+                Map<String, Integer> valueCounts = countValues(facet.getKey(), facet.getValue(), mask);
+                if (!valueCounts.isEmpty()) {
+                    counts.put(facet.getKey(), valueCounts);
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(limit);
+            int skipped = 0;
+            for (int pos = matched.nextSetBit(0); pos >= 0 && ids.size() < limit; pos = matched.nextSetBit(pos + 1)) {
+                if (skipped++ >= offset) {
+                    ids.add(productIds.get(pos));
+                }
+            }
+            return new FacetResult(ids, matched.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Помечает измененный товар для обновления индексов
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pendingProducts.add(event.getProductId());
+    }
+
+    /**
+     * Считает пересечения значений фасета с маской; ценовые диапазоны - в порядке возрастания,
+     * остальные значения - по убыванию количества
+     */
+    private Map<String, Integer> countValues(String facet, Map<String, BitSet> values, BitSet mask) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(values.size());
+        for (Map.Entry<String, BitSet> value : values.entrySet()) {
+            BitSet bits = (BitSet) value.getValue().clone();
+            bits.and(mask);
+            int count = bits.cardinality();
+            if (count > 0) {
+                entries.add(Map.entry(value.getKey(), count));
+            }
+        }
+        if (!PRICE.equals(facet)) {
+            entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            counts.put(entry.getKey(), entry.getValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Строит индексы при первом обращении и применяет накопленные изменения товаров
+     */
+    private void refresh() {
+        if (loaded && pendingProducts.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                pendingProducts.clear();
+                // Диапазоны цен создаются заранее, чтобы сохранить их порядок
+                Map<String, BitSet> priceValues = new LinkedHashMap<>();
+                for (int bucket = 0; bucket <= priceBounds.length; bucket++) {
+                    priceValues.put(priceLabel(bucket), new BitSet());
+                }
+                facets.put(PRICE, priceValues);
+                for (Product product : productRepository.findAll(Sort.by("id"))) {
+                    index(product);
+                }
+                loaded = true;
+                log.info("Построены индексы фасетов: {} товаров, {} фасетов", positions.size(), facets.size());
+                return;
+            }
+            if (pendingProducts.isEmpty()) {
+                return;
+            }
+
+            List<Long> changedIds = new ArrayList<>(pendingProducts);
+            pendingProducts.removeAll(changedIds);
+            for (Long id : changedIds) {
+                unindex(id);
+            }
+            for (Product product : productRepository.findAllById(changedIds)) {
+                index(product);
+            }
+            log.debug("Индексы фасетов обновлены для {} товаров", changedIds.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Product product) {
+        Integer pos = positions.get(product.getId());
+        if (pos == null) {
+            pos = productIds.size();
+            productIds.add(product.getId());
+            positions.put(product.getId(), pos);
+        }
+        live.set(pos);
+        active.set(pos, !Boolean.FALSE.equals(product.getIsActive()));
+
+        if (product.getComponentType() != null) {
+            set(COMPONENT_TYPE, product.getComponentType().name(), pos);
+        }
+        if (product.getCategory() != null) {
+            set(CATEGORY, String.valueOf(product.getCategory().getId()), pos);
+        }
+        if (product.getManufacturer() != null) {
+            set(MANUFACTURER, String.valueOf(product.getManufacturer().getId()), pos);
+        }
+        if (product.getPrice() != null) {
+            set(PRICE, priceLabel(priceBucket(product.getPrice())), pos);
+        }
+        if (product.getSpecs() != null) {
+            for (Map.Entry<String, String> spec : product.getSpecs().entrySet()) {
+                if (spec.getKey() != null && spec.getValue() != null && !spec.getValue().isBlank()) {
+                    set(SPEC_PREFIX + spec.getKey(), spec.getValue().trim(), pos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Снимает товар со всех значений фасетов; позиция сохраняется за товаром
+     */
+    private void unindex(Long productId) {
+        Integer pos = positions.get(productId);
+        if (pos == null) {
+            return;
+        }
+        live.clear(pos);
+        active.clear(pos);
+        for (Map<String, BitSet> values : facets.values()) {
+            for (BitSet bits : values.values()) {
+                bits.clear(pos);
+            }
+        }
+    }
+
+    private void set(String facet, String value, int pos) {
+        facets.computeIfAbsent(facet, key -> new HashMap<>())
+                .computeIfAbsent(value, key -> new BitSet())
+                .set(pos);
+    }
+
+    private int priceBucket(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price.compareTo(BigDecimal.valueOf(priceBounds[bucket])) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Название ценового диапазона: "0-5000", "5000-10000", ..., "100000+"
+     */
+    private String priceLabel(int bucket) {
+        long from = bucket == 0 ? 0 : priceBounds[bucket - 1];
+        return bucket == priceBounds.length ? from + "+" : from + "-" + priceBounds[bucket];
+    }
+
+    /**
+     * Результат отбора по фасетам
+     */
+    public static final class FacetResult {
+        private final List<Long> productIds;
+        private final int total;
+        private final Map<String, Map<String, Integer>> counts;
+
+        private FacetResult(List<Long> productIds, int total, Map<String, Map<String, Integer>> counts) {
+            this.productIds = productIds;
+            this.total = total;
+            this.counts = counts;
+        }
+
+        /**
+         * ID товаров запрошенной страницы
+         */
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        /**
+         * Количество всех подходящих товаров
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Количество товаров по значениям фасетов
+         */
+        public Map<String, Map<String, Integer>> getCounts() {
+            return counts;
+        }
+    }
+}
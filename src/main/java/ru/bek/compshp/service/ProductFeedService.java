@@ -0,0 +1,171 @@
+package ru.bek.compshp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.bek.compshp.dto.KeysetPage;
+import ru.bek.compshp.dto.ProductDto;
+import ru.bek.compshp.mapper.ProductMapper;
+import ru.bek.compshp.model.Category;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.repository.CategoryRepository;
+import ru.bek.compshp.repository.ProductRepository;
+import ru.bek.compshp.util.KeysetCursor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Постраничная и потоковая выдача списков товаров для витрины и внешних интеграций
+ * (фиды, агрегаторы цен).
+ *
+ * Страницы выбираются по ключу (ID по возрастанию) без OFFSET. Потоковая выгрузка
+ * пишет NDJSON (один товар на строку) прямо из курсора JPA, отсоединяя записанные
+ * товары, поэтому весь каталог в памяти не собирается.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFeedService {
+
+    /**
+     * Набор товаров списка
+     */
+    public enum Scope {
+        ALL,
+        AVAILABLE,
+        CATEGORY,
+        MANUFACTURER,
+        PC_COMPONENTS
+    }
+
+    private static final int STREAM_FLUSH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Выбирает страницу товаров
+     * @param scope набор товаров
+     * @param scopeId ID категории или производителя (для CATEGORY и MANUFACTURER)
+     * @param cursor курсор предыдущей страницы (null - первая страница)
+     * @param limit размер страницы
+     * @return страница товаров
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ProductDto> page(Scope scope, Long scopeId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        long afterId = after != null ? after.getId() : 0;
+        int size = ConfigurationSummaryService.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<Product> rows = switch (scope) {
+            case ALL -> productRepository.findPageAfter(afterId, page);
+            case AVAILABLE -> productRepository.findAvailablePageAfter(afterId, page);
+            case CATEGORY -> productRepository.findPageByCategoryIdInAfter(List.of(requireId(scope, scopeId)), afterId, page);
+            case MANUFACTURER -> productRepository.findPageByManufacturerIdAfter(requireId(scope, scopeId), afterId, page);
+            case PC_COMPONENTS -> {
+                List<Long> categoryIds = pcComponentCategoryIds();
+                yield categoryIds.isEmpty() ? List.of() : productRepository.findPageByCategoryIdInAfter(categoryIds, afterId, page);
+            }
+        };
+
+        boolean hasMore = rows.size() > size;
+        List<Product> pageRows = hasMore ? rows.subList(0, size) : rows;
+        List<ProductDto> items = new ArrayList<>(pageRows.size());
+        for (Product product : pageRows) {
+            items.add(productMapper.toDto(product));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Long lastId = pageRows.get(pageRows.size() - 1).getId();
+            nextCursor = KeysetCursor.encode(lastId, lastId);
+        }
+        return KeysetPage.<ProductDto>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Выгружает товары в NDJSON
+     * @param scope набор товаров
+     * @param scopeId ID категории или производителя (для CATEGORY и MANUFACTURER)
+     * @param out поток вывода (не закрывается)
+     * @return количество выгруженных товаров
+     */
+    @Transactional(readOnly = true)
+    public int stream(Scope scope, Long scopeId, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Записи разделяются переводом строки, а не пробелом по умолчанию
+        generator.setRootValueSeparator(null);
+
+        // Сброс в поток - пачками, а не после каждой записи
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        int written = 0;
+        try (Stream<Product> products = openStream(scope, scopeId)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                writer.writeValue(generator, productMapper.toDto(product));
+                generator.writeRaw('\n');
+                // Записанный товар больше не нужен контексту персистентности
+                entityManager.detach(product);
+                if (++written % STREAM_FLUSH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.close();
+
+        log.info("Выгружено {} товаров ({})", written, scope);
+        return written;
+    }
+
+    private Stream<Product> openStream(Scope scope, Long scopeId) {
+        return switch (scope) {
+            case ALL -> productRepository.streamAll();
+            case AVAILABLE -> productRepository.streamAvailable();
+            case CATEGORY -> productRepository.streamByCategoryIdIn(List.of(requireId(scope, scopeId)));
+            case MANUFACTURER -> productRepository.streamByManufacturerId(requireId(scope, scopeId));
+            case PC_COMPONENTS -> {
+                List<Long> categoryIds = pcComponentCategoryIds();
+                yield categoryIds.isEmpty() ? Stream.empty() : productRepository.streamByCategoryIdIn(categoryIds);
+            }
+        };
+    }
+
+    private List<Long> pcComponentCategoryIds() {
+        return categoryRepository.findByIsPcComponent(true).stream()
+                .map(Category::getId)
+                .toList();
+    }
+
+    private static Long requireId(Scope scope, Long scopeId) {
+        if (scopeId == null) {
+            throw new IllegalArgumentException("Для списка " + scope + " нужен ID");
+        }
+        return scopeId;
+    }
+}
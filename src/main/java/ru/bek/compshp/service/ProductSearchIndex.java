@@ -0,0 +1,402 @@
+package ru.bek.compshp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.bek.compshp.event.ManufacturerChangedEvent;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.repository.ProductRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Полнотекстовый индекс товаров в памяти.
+ * Инвертированный индекс по названию, описанию, производителю и значениям характеристик:
+ * для каждого термина хранится вес вхождения в каждый товар (по самому весомому полю).
+ *
+ * Термины нормализуются: нижний регистр, ё -> е, кириллица транслитерируется в латиницу,
+ * поэтому "Интел" и "Intel" дают один термин. Запрос сопоставляется с терминами точно,
+ * по префиксу и с опечатками (1 правка для слов от 4 символов, 2 - от 8); слово,
+ * набранное в неверной раскладке, ищется повторно в другой раскладке.
+ * Товар попадает в результат, только если найдены все слова запроса.
+ *
+ * Индекс строится при первом поиске; измененные товары переиндексируются перед следующим поиском.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float MANUFACTURER_WEIGHT = 2.0f;
+    private static final float SPEC_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.5f;
+
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float TYPO_FACTOR = 0.4f;
+    private static final float LAYOUT_FACTOR = 0.8f;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MIN_DOUBLE_TYPO_LENGTH = 8;
+
+    private static final String[] TRANSLIT = {
+            "a", "b", "v", "g", "d", "e", "zh", "z", "i", "i", "k", "l", "m", "n", "o", "p",
+            "r", "s", "t", "u", "f", "h", "ts", "ch", "sh", "sch", "", "y", "", "e", "yu", "ya"
+    };
+
+    private static final String LATIN_LAYOUT = "qwertyuiop[]asdfghjkl;'zxcvbnm,.`";
+    private static final String CYRILLIC_LAYOUT = "йцукенгшщзхъфывапролджэячсмитьбюё";
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /**
+     * Ищет товары по строке запроса
+     * @param query строка запроса
+     * @param type тип компонента (null - любой)
+     * @param activeOnly искать только среди активных товаров
+     * @return ID найденных товаров по убыванию релевантности
+     */
+    public List<Long> search(String query, ComponentType type, boolean activeOnly) {
+        List<String> words = split(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        refresh();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String word : words) {
+                Map<Long, Float> wordScores = match(normalize(word));
+                if (wordScores.isEmpty()) {
+                    String switched = switchLayout(word);
+                    if (switched != null) {
+                        wordScores = match(normalize(switched));
+                        wordScores.replaceAll((id, score) -> score * LAYOUT_FACTOR);
+                    }
+                }
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    // Все слова запроса должны быть найдены
+                    Map<Long, Float> merged = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        Float wordScore = wordScores.get(entry.getKey());
+                        if (wordScore != null) {
+                            merged.put(entry.getKey(), entry.getValue() + wordScore);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                IndexedProduct document = documents.get(entry.getKey());
+                if ((type == null || document.type == type) && (!activeOnly || document.active)) {
+                    ranked.add(entry);
+                }
+            }
+            ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Map.Entry<Long, Float> entry : ranked) {
+                ids.add(entry.getKey());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Помечает измененный товар для переиндексации
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pendingProducts.add(event.getProductId());
+    }
+
+    /**
+     * Помечает для переиндексации товары производителя: название производителя входит в индекс
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onManufacturerChanged(ManufacturerChangedEvent event) {
+        if (loaded) {
+            pendingProducts.addAll(productRepository.findIdsByManufacturerId(event.getManufacturerId()));
+        }
+    }
+
+    /**
+     * Находит товары, содержащие слово точно, по префиксу или с опечаткой.
+     * Для каждого товара берется лучшее совпадение; вес умножается на IDF термина.
+     * Вызывается под блокировкой чтения
+     */
+    private Map<Long, Float> match(String word) {
+        Map<Long, Float> scores = new HashMap<>();
+
+        Map<Long, Float> exact = postings.get(word);
+        if (exact != null) {
+            addScores(scores, exact, 1.0f);
+        }
+
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            for (Map.Entry<String, Map<Long, Float>> entry
+                    : postings.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                addScores(scores, entry.getValue(), PREFIX_FACTOR);
+            }
+        }
+
+        if (scores.isEmpty() && word.length() >= MIN_TYPO_LENGTH) {
+            int maxEdits = word.length() >= MIN_DOUBLE_TYPO_LENGTH ? 2 : 1;
+            for (Map.Entry<String, Map<Long, Float>> entry : postings.entrySet()) {
+                String term = entry.getKey();
+                if (Math.abs(term.length() - word.length()) <= maxEdits
+                        && editDistance(word, term, maxEdits) <= maxEdits) {
+                    addScores(scores, entry.getValue(), TYPO_FACTOR);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void addScores(Map<Long, Float> scores, Map<Long, Float> termPostings, float factor) {
+        float idf = (float) Math.log(1.0 + (double) documents.size() / termPostings.size());
+        for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+            scores.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+        }
+    }
+
+    /**
+     * Строит индекс при первом обращении и переиндексирует измененные товары
+     */
+    private void refresh() {
+        if (loaded && pendingProducts.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                pendingProducts.clear();
+                for (Product product : productRepository.findAll()) {
+                    index(product);
+                }
+                loaded = true;
+                log.info("Построен поисковый индекс товаров: {} товаров, {} терминов",
+                        documents.size(), postings.size());
+                return;
+            }
+            if (pendingProducts.isEmpty()) {
+                return;
+            }
+
+            List<Long> changedIds = new ArrayList<>(pendingProducts);
+            pendingProducts.removeAll(changedIds);
+            for (Long id : changedIds) {
+                unindex(id);
+            }
+            for (Product product : productRepository.findAllById(changedIds)) {
+                index(product);
+            }
+            log.debug("Поисковый индекс обновлен для {} товаров", changedIds.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, product.getTitle(), TITLE_WEIGHT);
+        if (product.getManufacturer() != null) {
+            addTerms(terms, product.getManufacturer().getName(), MANUFACTURER_WEIGHT);
+        }
+        if (product.getSpecs() != null) {
+            for (String value : product.getSpecs().values()) {
+                addTerms(terms, value, SPEC_WEIGHT);
+            }
+        }
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(product.getId(), term.getValue());
+        }
+        documents.put(product.getId(), new IndexedProduct(
+                product.getComponentType(), !Boolean.FALSE.equals(product.getIsActive()), terms.keySet()));
+    }
+
+    private void unindex(Long productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Float> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+            // "rtx4090" ищется также по "rtx" и "4090"
+            for (String part : splitLettersAndDigits(token)) {
+                terms.merge(part, weight, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Разбивает текст на нормализованные слова
+     */
+    private static List<String> tokenize(String text) {
+        List<String> words = split(text);
+        List<String> tokens = new ArrayList<>(words.size());
+        for (String word : words) {
+            tokens.add(normalize(word));
+        }
+        return tokens;
+    }
+
+    /**
+     * Разбивает текст на слова в нижнем регистре
+     */
+    private static List<String> split(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Нормализует слово: ё -> е, кириллица транслитерируется в латиницу
+     */
+    private static String normalize(String word) {
+        StringBuilder normalized = new StringBuilder(word.length() + 4);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (c >= 'а' && c <= 'я') {
+                normalized.append(TRANSLIT[c - 'а']);
+            } else {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static List<String> splitLettersAndDigits(String token) {
+        List<String> parts = new ArrayList<>(2);
+        int start = 0;
+        for (int i = 1; i <= token.length(); i++) {
+            if (i == token.length() || Character.isDigit(token.charAt(i)) != Character.isDigit(token.charAt(i - 1))) {
+                if (start > 0 || i < token.length()) {
+                    String part = token.substring(start, i);
+                    if (part.length() >= MIN_PREFIX_LENGTH) {
+                        parts.add(part);
+                    }
+                }
+                start = i;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Переводит слово, набранное в неверной раскладке, в другую раскладку
+     * (например, "byntk" -> "интел", "штеуд" -> "intel")
+     * @return слово в другой раскладке или null, если слово нельзя перевести
+     */
+    private static String switchLayout(String word) {
+        String from = LATIN_LAYOUT.indexOf(word.charAt(0)) >= 0 ? LATIN_LAYOUT : CYRILLIC_LAYOUT;
+        String to = from == LATIN_LAYOUT ? CYRILLIC_LAYOUT : LATIN_LAYOUT;
+        StringBuilder switched = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            int pos = from.indexOf(word.charAt(i));
+            if (pos < 0) {
+                return null;
+            }
+            switched.append(to.charAt(pos));
+        }
+        return switched.toString();
+    }
+
+    /**
+     * Расстояние Левенштейна с ранним выходом
+     * @return расстояние или maxEdits + 1, если оно больше maxEdits
+     */
+    private static int editDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Проиндексированный товар: тип и активность для фильтрации, термины для удаления из индекса
+     */
+    private static final class IndexedProduct {
+        private final ComponentType type;
+        private final boolean active;
+        private final Set<String> terms;
+
+        private IndexedProduct(ComponentType type, boolean active, Set<String> terms) {
+            this.type = type;
+            this.active = active;
+            this.terms = terms;
+        }
+    }
+}
@@ -3,9 +3,22 @@ package ru.bek.compshp.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
+import ru.bek.compshp.dto.ProductDto;
+import ru.bek.compshp.dto.ProductFacetRequest;
+import ru.bek.compshp.dto.ProductFacetResult;
+import ru.bek.compshp.event.ProductChangedEvent;
+import ru.bek.compshp.mapper.ProductMapper;
 import ru.bek.compshp.model.Category;
 import ru.bek.compshp.model.Manufacturer;
 import ru.bek.compshp.model.Product;
@@ -13,14 +26,19 @@ import ru.bek.compshp.model.Review;
 import ru.bek.compshp.repository.CategoryRepository;
 import ru.bek.compshp.repository.ProductRepository;
 import ru.bek.compshp.repository.ReviewRepository;
+import ru.bek.compshp.util.SpecFilter;
 import ru.bek.compshp.model.enums.ComponentType;
 
 import java.math.BigDecimal;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import ru.bek.compshp.exception.ResourceNotFoundException;
 import java.util.stream.Collectors;
 
@@ -36,10 +54,18 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    public static final int DEFAULT_FACET_PAGE_SIZE = 20;
+    public static final int MAX_FACET_PAGE_SIZE = 100;
+    public static final String PC_COMPONENT_PRODUCTS_CACHE = "pcComponentProducts";
+
     private final ProductRepository productRepository;
     private final ManufacturerService manufacturerService;
     private final CategoryRepository categoryRepository;
     private final ReviewRepository reviewRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductMapper productMapper;
+    private final CacheManager cacheManager;
 
     @Value("${app.upload.dir}")
     private String uploadDir;
@@ -78,6 +104,73 @@ public class ProductService {
         return productRepository.findAvailableProducts();
     }
 
+    /**
+     * Полнотекстовый поиск товаров по названию, описанию, производителю и характеристикам.
+     * Результат упорядочен по релевантности; сортировка из pageable не применяется
+     * @param query строка поиска
+     * @param type тип компонента (null - любой)
+     * @param activeOnly искать только среди активных товаров
+     * @param pageable параметры пагинации
+     * @return страница найденных товаров
+     */
+    public Page<Product> searchProducts(String query, ComponentType type, boolean activeOnly, Pageable pageable) {
+        List<Long> ids = productSearchIndex.search(query, type, activeOnly);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(loadInOrder(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    /**
+     * Фасетный поиск товаров: фильтры по типу, категории, производителю, цене и характеристикам
+     * с количеством товаров для каждого значения фасетов
+     * @param request фильтры и страница
+     * @return страница товаров и счетчики фасетов
+     */
+    public ProductFacetResult<Product> searchWithFacets(ProductFacetRequest request) {
+        int page = request.getPage() != null ? Math.max(request.getPage(), 0) : 0;
+        int size = request.getSize() != null
+            ? Math.min(Math.max(request.getSize(), 1), MAX_FACET_PAGE_SIZE)
+            : DEFAULT_FACET_PAGE_SIZE;
+
+        Map<String, Set<String>> filters = new HashMap<>();
+        filters.put(ProductFacetIndex.COMPONENT_TYPE, request.getComponentTypes().stream()
+            .map(ComponentType::name).collect(Collectors.toSet()));
+        filters.put(ProductFacetIndex.CATEGORY, request.getCategoryIds().stream()
+            .map(String::valueOf).collect(Collectors.toSet()));
+        filters.put(ProductFacetIndex.MANUFACTURER, request.getManufacturerIds().stream()
+            .map(String::valueOf).collect(Collectors.toSet()));
+        filters.put(ProductFacetIndex.PRICE, request.getPriceRanges());
+        request.getSpecs().forEach((key, values) -> filters.put(ProductFacetIndex.SPEC_PREFIX + key, values));
+
+        ProductFacetIndex.FacetResult result =
+            productFacetIndex.search(filters, request.isActiveOnly(), page * size, size);
+        return ProductFacetResult.<Product>builder()
+            .items(loadInOrder(result.getProductIds()))
+            .total(result.getTotal())
+            .page(page)
+            .size(size)
+            .facets(result.getCounts())
+            .build();
+    }
+
+    /**
+     * Загружает товары одним запросом, сохраняя порядок ID
+     */
+    private List<Product> loadInOrder(List<Long> ids) {
+        Map<Long, Product> products = new HashMap<>(ids.size() * 2);
+        for (Product product : productRepository.findAllById(ids)) {
+            products.put(product.getId(), product);
+        }
+        List<Product> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        return content;
+    }
+
     @Transactional
     public void saveProductWithImage(Product product, MultipartFile mainImageFile) throws IOException {
         try {
@@ -168,13 +261,19 @@ public class ProductService {
     }
 
     public List<Product> getProductsByMinDiscount(Integer minDiscount) {
-        return productRepository.findByMinDiscount(minDiscount);
+        return productRepository.findBySpecFilters(
+            List.of(SpecFilter.compare("discount", SpecFilter.Operator.GT, BigDecimal.valueOf(minDiscount))), true);
     }
 
     public List<Product> getReadyPCs(Long categoryId) {
         return productRepository.findReadyPCs(categoryId);
     }
 
+    /**
+     * Находит активные товары, в тексте характеристик которых встречается подстрока.
+     * Выполняется полным просмотром таблицы; для индексируемых условий по значениям
+     * характеристик - findBySpecFilters, для поиска по словам - searchProducts
+     */
     public List<Product> findBySpecsContaining(String spec) {
         return productRepository.findBySpecsContaining(spec);
     }
@@ -183,10 +282,27 @@ public class ProductService {
         return productRepository.findByComponentType(type);
     }
 
+    /**
+     * Находит активные товары с указанными значениями характеристик
+     * @param specs ключ -> требуемое значение
+     * @return товары, у которых совпадают все значения
+     */
     public List<Product> getProductsBySpecs(Map<String, String> specs) {
-        // Извлекаем только ключи из Map и передаем их в репозиторий
-        List<String> keys = specs.keySet().stream().toList();
-        return productRepository.findBySpecs(keys);
+        List<SpecFilter> filters = specs.entrySet().stream()
+            .map(spec -> SpecFilter.eq(spec.getKey(), spec.getValue()))
+            .toList();
+        return productRepository.findBySpecFilters(filters, true);
+    }
+
+    /**
+     * Находит товары по условиям на характеристики
+     * @param filters условия вида "socket=AM5", "cores>=8", "memory_type IN (DDR4, DDR5)"
+     * @param activeOnly только активные товары
+     * @return товары, удовлетворяющие всем условиям
+     * @throws IllegalArgumentException если условие записано некорректно
+     */
+    public List<Product> findBySpecFilters(List<String> filters, boolean activeOnly) {
+        return productRepository.findBySpecFilters(filters.stream().map(SpecFilter::parse).toList(), activeOnly);
     }
 
     public List<Product> getActiveProducts() {
@@ -324,27 +440,61 @@ public class ProductService {
     }
 
     /**
-     * Получает все продукты из категорий, которые являются компонентами ПК
-     * @return список продуктов из категорий компонентов ПК
+     * Получает все товары из категорий компонентов ПК.
+     * Отбор выполняется в базе по набору категорий; в кэше хранится список DTO с ключом
+     * по этому набору, поэтому смена признака категории сразу дает новый ключ.
+     * @return товары, отсортированные по ID
      */
-    public List<Product> getPcComponentProducts() {
-        // Получаем все категории с признаком isPcComponent = true
-        List<Category> pcComponentCategories = categoryRepository.findByIsPcComponent(true);
-        
-        // Если категорий нет, возвращаем пустой список
-        if (pcComponentCategories.isEmpty()) {
+    public List<ProductDto> getPcComponentProducts() {
+        List<Long> categoryIds = pcComponentCategoryIds();
+        if (categoryIds.isEmpty()) {
             return List.of();
         }
-        
-        // Собираем ID всех категорий компонентов ПК
-        List<Long> categoryIds = pcComponentCategories.stream()
+        return pcComponentProductsCache().get(categoryIds,
+                () -> List.copyOf(productMapper.toDtoList(productRepository.findByCategoryIdIn(categoryIds, Sort.by("id")))));
+    }
+
+    /**
+     * Получает страницу товаров из категорий компонентов ПК.
+     * Страница вырезается из закэшированного полного списка, отдельные страницы не кэшируются
+     * @param page номер страницы (с 0)
+     * @param limit размер страницы (по умолчанию 20, не более 100)
+     * @return товары страницы, отсортированные по ID
+     */
+    public List<ProductDto> getPcComponentProducts(int page, Integer limit) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Некорректный номер страницы: " + page);
+        }
+        int size = ConfigurationSummaryService.pageSize(limit);
+        List<ProductDto> products = getPcComponentProducts();
+        long from = (long) page * size;
+        if (from >= products.size()) {
+            return List.of();
+        }
+        return products.subList((int) from, (int) Math.min(from + size, products.size()));
+    }
+
+    /**
+     * Сбрасывает кэш компонентов ПК после изменения товара.
+     * Переименование категорий и производителей сбрасывает кэш в CategoryService,
+     * ManufacturerService и AdminService
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pcComponentProductsCache().clear();
+    }
+
+    /**
+     * ID категорий компонентов ПК по возрастанию - часть ключа кэша
+     */
+    private List<Long> pcComponentCategoryIds() {
+        return categoryRepository.findByIsPcComponent(true).stream()
                 .map(Category::getId)
+                .sorted()
                 .collect(Collectors.toList());
-        
-        // Находим все продукты, принадлежащие этим категориям
-        return productRepository.findAll().stream()
-                .filter(product -> product.getCategory() != null && 
-                                  categoryIds.contains(product.getCategory().getId()))
-                .collect(Collectors.toList());
+    }
+
+    private Cache pcComponentProductsCache() {
+        return Objects.requireNonNull(cacheManager.getCache(PC_COMPONENT_PRODUCTS_CACHE));
     }
 } 
\ No newline at end of file
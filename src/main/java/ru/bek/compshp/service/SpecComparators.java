@@ -0,0 +1,77 @@
+package ru.bek.compshp.service;
+
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+
+/**
+ * Операции сравнения характеристик для правил совместимости.
+ * Работают только с заранее разобранными значениями ({@link SpecValue}):
+ * не разбирают строки, не создают объектов и не используют исключения,
+ * поэтому могут вызываться на горячем пути проверки совместимости.
+ *
+ * Числовые операции считаются выполненными, если одно из значений не является числом
+ * (правило к такой паре не применяется).
+ */
+public final class SpecComparators {
+
+    private SpecComparators() {
+    }
+
+    public static boolean equalTo(SpecValue source, SpecValue target) {
+        return source.getRaw().equals(target.getRaw());
+    }
+
+    public static boolean notEqualTo(SpecValue source, SpecValue target) {
+        return !source.getRaw().equals(target.getRaw());
+    }
+
+    public static boolean greaterThan(SpecValue source, SpecValue target) {
+        return !bothNumeric(source, target) || source.getNumber() > target.getNumber();
+    }
+
+    public static boolean lessThan(SpecValue source, SpecValue target) {
+        return !bothNumeric(source, target) || source.getNumber() < target.getNumber();
+    }
+
+    public static boolean greaterOrEqual(SpecValue source, SpecValue target) {
+        return !bothNumeric(source, target) || source.getNumber() >= target.getNumber();
+    }
+
+    public static boolean lessOrEqual(SpecValue source, SpecValue target) {
+        return !bothNumeric(source, target) || source.getNumber() <= target.getNumber();
+    }
+
+    public static boolean contains(SpecValue source, SpecValue target) {
+        return source.getRaw().contains(target.getRaw());
+    }
+
+    /**
+     * Проверяет совместимость PCIe версий с учетом обратной совместимости
+     * PCIe 5.0 > 4.0 > 3.0 > 2.0 > 1.0
+     * @param source значение исходного компонента
+     * @param target значение целевого компонента
+     * @param sourceIsDevice true, если источник - устройство (interface), а цель - слоты платы (pcie_slots)
+     */
+    public static boolean pcieCompatible(SpecValue source, SpecValue target, boolean sourceIsDevice) {
+        // Версии PCIe извлечены заранее при разборе характеристик
+        double sourceVersion = source.getVersion();
+        double targetVersion = target.getVersion();
+
+        if (sourceVersion == -1 || targetVersion == -1) {
+            // Если не удалось извлечь версии, используем обычную проверку на содержание
+            String sourceRaw = source.getRaw();
+            String targetRaw = target.getRaw();
+            return sourceRaw.contains(targetRaw) || targetRaw.contains(sourceRaw);
+        }
+
+        if (sourceIsDevice) {
+            // Видеокарта может работать на материнской плате с равной или более высокой версией PCIe
+            return targetVersion >= sourceVersion;
+        }
+        // Материнская плата может поддерживать видеокарту с равной или более низкой версией PCIe
+        return sourceVersion >= targetVersion;
+    }
+
+    private static boolean bothNumeric(SpecValue source, SpecValue target) {
+        return source.isNumeric() && target.isNumeric();
+    }
+}
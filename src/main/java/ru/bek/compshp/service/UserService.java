@@ -9,6 +9,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.bek.compshp.dto.ConfigurationSearchRequest;
 import ru.bek.compshp.dto.UserProfileDto;
 import ru.bek.compshp.exception.ResourceNotFoundException;
 import ru.bek.compshp.model.*;
@@ -35,6 +36,8 @@ public class UserService {
     private final CartItemRepository cartItemRepository;
     private final PCConfigurationRepository pcConfigurationRepository;
     private final ProductRepository productRepository;
+    private final ConfiguratorService configuratorService;
+    private final ConfigurationSummaryService configurationSummaryService;
     private final ObjectMapper objectMapper;
 
     @Transactional
@@ -479,13 +482,19 @@ public class UserService {
     }
     
     /**
-     * Получить конфигурации ПК пользователя
+     * Получить конфигурации ПК пользователя (постранично по сводкам, новые первыми)
+     * @param cursor курсор страницы (null - первая страница)
+     * @param limit размер страницы
      */
-    public ResponseEntity<?> getUserConfigs() {
+    public ResponseEntity<?> getUserConfigs(String cursor, Integer limit) {
         try {
             User user = getCurrentUser();
-            List<PCConfiguration> configs = pcConfigurationRepository.findByUserId(user.getId());
-            return ResponseEntity.ok(configs);
+            ConfigurationSearchRequest request = ConfigurationSearchRequest.builder()
+                .userId(user.getId())
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+            return ResponseEntity.ok(configurationSummaryService.search(request));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -498,9 +507,12 @@ public class UserService {
     public ResponseEntity<?> createConfig(String configJson) {
         try {
             User user = getCurrentUser();
-            PCConfiguration config = objectMapper.readValue(configJson, PCConfiguration.class);
+            PCConfiguration request = objectMapper.readValue(configJson, PCConfiguration.class);
+            
+            PCConfiguration config = new PCConfiguration();
             config.setUser(user);
-            return ResponseEntity.ok(pcConfigurationRepository.save(config));
+            copyDescription(request, config);
+            return ResponseEntity.ok(configuratorService.saveConfiguration(config, productIdsOf(request)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -521,11 +533,9 @@ public class UserService {
                 return ResponseEntity.badRequest().body("У вас нет доступа к этой конфигурации");
             }
             
-            PCConfiguration updatedConfig = objectMapper.readValue(configJson, PCConfiguration.class);
-            updatedConfig.setId(configId);
-            updatedConfig.setUser(user);
-            
-            return ResponseEntity.ok(pcConfigurationRepository.save(updatedConfig));
+            PCConfiguration request = objectMapper.readValue(configJson, PCConfiguration.class);
+            copyDescription(request, existingConfig);
+            return ResponseEntity.ok(configuratorService.saveConfiguration(existingConfig, productIdsOf(request)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -546,10 +556,35 @@ public class UserService {
                 return ResponseEntity.badRequest().body("У вас нет доступа к этой конфигурации");
             }
             
-            pcConfigurationRepository.delete(config);
+            configuratorService.deleteConfiguration(configId);
             return ResponseEntity.ok("Конфигурация успешно удалена");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Переносит описательные поля конфигурации, полученной от клиента;
+     * итоги, совместимость и состав пересчитываются при сохранении
+     */
+    private void copyDescription(PCConfiguration source, PCConfiguration target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setCategory(source.getCategory());
+        target.setIsPublic(Boolean.TRUE.equals(source.getIsPublic()));
+    }
+
+    /**
+     * ID товаров конфигурации, полученной от клиента
+     */
+    private List<Long> productIdsOf(PCConfiguration config) {
+        if (config.getComponents() == null) {
+            return List.of();
+        }
+        return config.getComponents().stream()
+            .map(ConfigComponent::getProduct)
+            .filter(product -> product != null && product.getId() != null)
+            .map(Product::getId)
+            .toList();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.bek.compshp.service.analysis;
+
+import ru.bek.compshp.dto.CompatibilityIssue;
+
+import java.util.List;
+
+/**
+ * Этап анализа совместимости конфигурации.
+ * Этапы не зависят друг от друга: каждый читает общий {@link ComponentIndex}
+ * и складывает найденные проблемы в собственный список, поэтому их можно выполнять параллельно.
+ * Порядок этапов (и порядок проблем в результате) задается аннотацией {@code @Order}.
+ */
+public interface AnalysisStage {
+
+    /**
+     * Название этапа для журнала (например, "анализе энергопотребления")
+     */
+    String getName();
+
+    /**
+     * Выполняет проверку
+     * @param index компоненты, проиндексированные по типу
+     * @param issues список, в который добавляются найденные проблемы
+     */
+    void analyze(ComponentIndex index, List<CompatibilityIssue> issues);
+
+    /**
+     * Проблема, которая добавляется в результат, если этап завершился с ошибкой
+     * @return проблема или null, если ошибку этапа можно не показывать
+     */
+    default CompatibilityIssue getFailureIssue() {
+        return null;
+    }
+}
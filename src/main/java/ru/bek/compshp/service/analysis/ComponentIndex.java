@@ -0,0 +1,71 @@
+package ru.bek.compshp.service.analysis;
+
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.*;
+
+/**
+ * Компоненты конфигурации, проиндексированные по типу за один проход.
+ * Порядок компонентов внутри типа совпадает с исходным списком.
+ */
+public final class ComponentIndex {
+
+    private final List<Product> components;
+    private final Map<ComponentType, List<Product>> byType = new EnumMap<>(ComponentType.class);
+    private final Set<ComponentType> presentTypes = new HashSet<>();
+
+    public ComponentIndex(List<Product> components) {
+        this.components = List.copyOf(components);
+        for (Product product : this.components) {
+            // Разбираем характеристики и загружаем категорию заранее,
+            // чтобы этапы анализа могли безопасно читать товары из других потоков
+            product.getParsedSpecs();
+            product.isPeripheral();
+
+            ComponentType type = product.getComponentType();
+            presentTypes.add(type);
+            if (type != null) {
+                byType.computeIfAbsent(type, t -> new ArrayList<>()).add(product);
+            }
+        }
+    }
+
+    /**
+     * Возвращает все компоненты в исходном порядке
+     */
+    public List<Product> getComponents() {
+        return components;
+    }
+
+    /**
+     * Возвращает первый компонент указанного типа
+     * @return компонент или null, если такого типа нет
+     */
+    public Product first(ComponentType type) {
+        List<Product> products = byType.get(type);
+        return products == null ? null : products.get(0);
+    }
+
+    /**
+     * Возвращает все компоненты указанного типа
+     */
+    public List<Product> all(ComponentType type) {
+        return byType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Проверяет, есть ли в конфигурации компонент указанного типа
+     */
+    public boolean contains(ComponentType type) {
+        return presentTypes.contains(type);
+    }
+
+    public int count(ComponentType type) {
+        return all(type).size();
+    }
+
+    public boolean isEmpty() {
+        return components.isEmpty();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.bek.compshp.service.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.List;
+
+/**
+ * Генерация рекомендаций по оптимизации.
+ * Ошибка этого этапа не критична, поэтому проблема при сбое не добавляется.
+ */
+@Component
+@Order(7)
+public class OptimizationRecommendationsStage implements AnalysisStage {
+
+    @Override
+    public String getName() {
+        return "генерации рекомендаций";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        // Рекомендации по SSD
+        boolean hasSsd = index.all(ComponentType.STORAGE).stream()
+                .anyMatch(p -> p.getSpec("type").toLowerCase().contains("ssd"));
+
+        if (!hasSsd) {
+            issues.add(new CompatibilityIssue(
+                IssueType.RECOMMENDATION,
+                IssueCategory.PERFORMANCE,
+                "Рекомендуется SSD",
+                "Добавление SSD значительно улучшит скорость загрузки системы и приложений"
+            ));
+        }
+
+        // Рекомендации по количеству модулей RAM
+        if (index.count(ComponentType.RAM) == 1) {
+            issues.add(new CompatibilityIssue(
+                IssueType.RECOMMENDATION,
+                IssueCategory.PERFORMANCE,
+                "Рекомендуется двухканальная память",
+                "Использование двух модулей RAM вместо одного улучшит производительность"
+            ));
+        }
+    }
+}
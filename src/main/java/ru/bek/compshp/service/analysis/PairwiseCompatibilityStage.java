@@ -0,0 +1,113 @@
+package ru.bek.compshp.service.analysis;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.service.ComponentCompatibilityService;
+
+import java.util.List;
+
+/**
+ * Проверка совместимости пар компонентов по правилам
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class PairwiseCompatibilityStage implements AnalysisStage {
+
+    private final ComponentCompatibilityService compatibilityService;
+
+    @Override
+    public String getName() {
+        return "проверке совместимости компонентов";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        List<Product> components = index.getComponents();
+        for (int i = 0; i < components.size(); i++) {
+            for (int j = i + 1; j < components.size(); j++) {
+                Product product1 = components.get(i);
+                Product product2 = components.get(j);
+
+                // Проверяем совместимость
+                if (!compatibilityService.checkComponentsCompatibility(product1, product2)) {
+                    String reason = compatibilityService.getIncompatibilityReason(product1, product2);
+
+                    issues.add(new CompatibilityIssue(
+                        determineIssueType(reason),
+                        determineIssueCategory(reason),
+                        "Несовместимость компонентов",
+                        reason != null ? reason : "Компоненты несовместимы",
+                        product1.getTitle(),
+                        product2.getTitle()
+                    ));
+                }
+            }
+        }
+    }
+
+    @Override
+    public CompatibilityIssue getFailureIssue() {
+        return new CompatibilityIssue(
+            IssueType.WARNING,
+            IssueCategory.COMPATIBILITY,
+            "Ошибка проверки совместимости",
+            "Не удалось проверить совместимость всех компонентов"
+        );
+    }
+
+    /**
+     * Определение типа проблемы на основе описания
+     */
+    private IssueType determineIssueType(String reason) {
+        if (reason == null) {
+            return IssueType.CRITICAL_ERROR;
+        }
+
+        String lowerReason = reason.toLowerCase();
+
+        // Критические ошибки
+        if (lowerReason.contains("сокет") || lowerReason.contains("socket") ||
+            lowerReason.contains("несовместим") || lowerReason.contains("одного типа")) {
+            return IssueType.CRITICAL_ERROR;
+        }
+
+        // Предупреждения
+        if (lowerReason.contains("производительность") || lowerReason.contains("баланс") ||
+            lowerReason.contains("рекомендуется") || lowerReason.contains("недостаточн")) {
+            return IssueType.WARNING;
+        }
+
+        return IssueType.CRITICAL_ERROR;
+    }
+
+    /**
+     * Определение категории проблемы на основе описания
+     */
+    private IssueCategory determineIssueCategory(String reason) {
+        if (reason == null) {
+            return IssueCategory.COMPATIBILITY;
+        }
+
+        String lowerReason = reason.toLowerCase();
+
+        if (lowerReason.contains("производительность") || lowerReason.contains("баланс")) {
+            return IssueCategory.BALANCE;
+        }
+
+        if (lowerReason.contains("энерг") || lowerReason.contains("мощность")) {
+            return IssueCategory.POWER;
+        }
+
+        if (lowerReason.contains("размер") || lowerReason.contains("длина")) {
+            return IssueCategory.PHYSICAL;
+        }
+
+        return IssueCategory.COMPATIBILITY;
+    }
+}
@@ -0,0 +1,121 @@
+package ru.bek.compshp.service.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.List;
+
+/**
+ * Анализ баланса производительности (CPU-GPU и объем памяти)
+ */
+@Component
+@Order(4)
+public class PerformanceBalanceStage implements AnalysisStage {
+
+    @Override
+    public String getName() {
+        return "анализе баланса производительности";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        Product cpu = index.first(ComponentType.CPU);
+        Product gpu = index.first(ComponentType.GPU);
+
+        if (cpu == null || gpu == null) {
+            return;
+        }
+
+        // Анализ баланса CPU-GPU
+        analyzeCpuGpuBalance(cpu, gpu, issues);
+
+        // Анализ памяти
+        analyzeMemoryBalance(index.first(ComponentType.RAM), issues);
+    }
+
+    @Override
+    public CompatibilityIssue getFailureIssue() {
+        return new CompatibilityIssue(
+            IssueType.WARNING,
+            IssueCategory.BALANCE,
+            "Ошибка анализа баланса",
+            "Не удалось проанализировать баланс производительности"
+        );
+    }
+
+    /**
+     * Анализ баланса CPU-GPU
+     */
+    private void analyzeCpuGpuBalance(Product cpu, Product gpu, List<CompatibilityIssue> issues) {
+        SpecValue cpuPerformanceSpec = cpu.getParsedSpecs().get("performance_score");
+        SpecValue gpuPerformanceSpec = gpu.getParsedSpecs().get("performance_score");
+
+        // Отсутствующие и нечисловые значения игнорируем
+        if (!cpuPerformanceSpec.isInteger() || !gpuPerformanceSpec.isInteger()) {
+            return;
+        }
+
+        int cpuPerformance = cpuPerformanceSpec.getIntValue();
+        int gpuPerformance = gpuPerformanceSpec.getIntValue();
+
+        double ratio = (double) Math.max(cpuPerformance, gpuPerformance) /
+                      Math.min(cpuPerformance, gpuPerformance);
+
+        if (ratio > 2.0) {
+            String bottleneck = cpuPerformance < gpuPerformance ? "процессор" : "видеокарта";
+            issues.add(new CompatibilityIssue(
+                IssueType.WARNING,
+                IssueCategory.BALANCE,
+                "Дисбаланс производительности",
+                String.format("Значительный дисбаланс между CPU и GPU. %s может стать узким местом",
+                        bottleneck),
+                cpu.getTitle(),
+                gpu.getTitle()
+            ));
+        } else if (ratio > 1.5) {
+            issues.add(new CompatibilityIssue(
+                IssueType.RECOMMENDATION,
+                IssueCategory.BALANCE,
+                "Небольшой дисбаланс производительности",
+                "Рассмотрите возможность более сбалансированного соотношения CPU и GPU"
+            ));
+        }
+    }
+
+    /**
+     * Анализ объема оперативной памяти
+     */
+    private void analyzeMemoryBalance(Product ram, List<CompatibilityIssue> issues) {
+        if (ram == null) {
+            return;
+        }
+
+        // Объем берется из цифр значения ("32GB" -> 32)
+        int ramSize = ram.getParsedSpecs().get("capacity").getDigits();
+        if (ramSize < 0) {
+            return;
+        }
+
+        if (ramSize < 8) {
+            issues.add(new CompatibilityIssue(
+                IssueType.WARNING,
+                IssueCategory.PERFORMANCE,
+                "Недостаточно оперативной памяти",
+                "Рекомендуется минимум 8GB RAM для современных задач"
+            ));
+        } else if (ramSize > 64) {
+            issues.add(new CompatibilityIssue(
+                IssueType.RECOMMENDATION,
+                IssueCategory.PERFORMANCE,
+                "Избыточное количество RAM",
+                "Возможно, такое количество RAM избыточно для большинства задач"
+            ));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.bek.compshp.service.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.List;
+
+/**
+ * Анализ физических размеров: длина видеокарты против ограничений корпуса
+ */
+@Component
+@Order(6)
+public class PhysicalDimensionsStage implements AnalysisStage {
+
+    @Override
+    public String getName() {
+        return "анализе физических размеров";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        Product pcCase = index.first(ComponentType.CASE);
+        Product gpu = index.first(ComponentType.GPU);
+
+        if (pcCase == null || gpu == null) {
+            return;
+        }
+
+        SpecValue caseMaxGpuLengthSpec = pcCase.getParsedSpecs().get("max_gpu_length");
+        SpecValue gpuLengthSpec = gpu.getParsedSpecs().get("length");
+
+        // Отсутствующие и нечисловые значения игнорируем
+        if (!caseMaxGpuLengthSpec.isInteger() || !gpuLengthSpec.isInteger()) {
+            return;
+        }
+
+        int caseMaxGpuLength = caseMaxGpuLengthSpec.getIntValue();
+        int gpuLength = gpuLengthSpec.getIntValue();
+
+        if (gpuLength > caseMaxGpuLength) {
+            issues.add(new CompatibilityIssue(
+                IssueType.CRITICAL_ERROR,
+                IssueCategory.PHYSICAL,
+                "Видеокарта не помещается в корпус",
+                String.format("Длина видеокарты (%dmm) превышает максимальную для корпуса (%dmm)",
+                        gpuLength, caseMaxGpuLength),
+                gpu.getTitle(),
+                pcCase.getTitle()
+            ));
+        }
+    }
+
+    @Override
+    public CompatibilityIssue getFailureIssue() {
+        return new CompatibilityIssue(
+            IssueType.WARNING,
+            IssueCategory.PHYSICAL,
+            "Ошибка анализа размеров",
+            "Не удалось проанализировать физические размеры компонентов"
+        );
+    }
+}
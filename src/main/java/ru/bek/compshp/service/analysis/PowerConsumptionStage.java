@@ -0,0 +1,112 @@
+package ru.bek.compshp.service.analysis;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+import ru.bek.compshp.service.PowerCalculator;
+
+import java.util.List;
+
+/**
+ * Анализ энергопотребления и нагрузки на блок питания
+ */
+@Slf4j
+@Component
+@Order(3)
+@RequiredArgsConstructor
+public class PowerConsumptionStage implements AnalysisStage {
+
+    private final PowerCalculator powerCalculator;
+
+    @Override
+    public String getName() {
+        return "анализе энергопотребления";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        Product psu = index.first(ComponentType.PSU);
+        if (psu == null) {
+            return; // Уже проверено в проверке обязательных компонентов
+        }
+
+        // Для БП ищем мощность в поле "power" (это мощность БП, а не потребление)
+        SpecValue psuPowerSpec = psu.getParsedSpecs().get("power");
+
+        // Если не найден "power", пробуем "wattage" как fallback
+        if (!psuPowerSpec.isPresent()) {
+            psuPowerSpec = psu.getParsedSpecs().get("wattage");
+        }
+
+        if (!psuPowerSpec.isPresent()) {
+            issues.add(new CompatibilityIssue(
+                IssueType.WARNING,
+                IssueCategory.POWER,
+                "Неизвестная мощность БП",
+                "Не указана мощность блока питания, невозможно проверить достаточность энергоснабжения"
+            ));
+            return;
+        }
+
+        if (!psuPowerSpec.isInteger()) {
+            issues.add(new CompatibilityIssue(
+                IssueType.WARNING,
+                IssueCategory.POWER,
+                "Некорректное значение мощности БП",
+                "Не удается определить мощность блока питания"
+            ));
+            return;
+        }
+
+        int psuPower = psuPowerSpec.getIntValue();
+        // Потребление товаров кешируется калькулятором, характеристики не разбираются повторно
+        int totalConsumption = powerCalculator.getTotalPower(index.getComponents());
+
+        log.info("Анализ энергопотребления: БП {}Вт, потребление {}Вт", psuPower, totalConsumption);
+
+        if (totalConsumption > psuPower) {
+            issues.add(new CompatibilityIssue(
+                IssueType.CRITICAL_ERROR,
+                IssueCategory.POWER,
+                "Недостаточная мощность блока питания",
+                String.format("Выбранный блок питания (%dВт) не обеспечит стабильную работу конфигурации. " +
+                            "Требуется минимум %dВт. Рекомендуется БП мощностью %dВт или выше.",
+                        psuPower, totalConsumption, powerCalculator.getRecommendedPsuWattage(totalConsumption))
+            ));
+        } else if (powerCalculator.isHeadroomBelowMargin(totalConsumption, psuPower)) {
+            issues.add(new CompatibilityIssue(
+                IssueType.WARNING,
+                IssueCategory.POWER,
+                "Высокая нагрузка на БП",
+                String.format("БП загружен на %.1f%%, запас мощности %dВт (рекомендуется не менее %dВт)",
+                        (double) totalConsumption / psuPower * 100,
+                        psuPower - totalConsumption, powerCalculator.getRequiredHeadroom(psuPower))
+            ));
+        } else if (totalConsumption < psuPower * 0.3) {
+            issues.add(new CompatibilityIssue(
+                IssueType.RECOMMENDATION,
+                IssueCategory.POWER,
+                "Избыточная мощность БП",
+                String.format("БП загружен всего на %.1f%%, можно выбрать менее мощный для экономии",
+                        (double) totalConsumption / psuPower * 100)
+            ));
+        }
+    }
+
+    @Override
+    public CompatibilityIssue getFailureIssue() {
+        return new CompatibilityIssue(
+            IssueType.WARNING,
+            IssueCategory.POWER,
+            "Ошибка анализа энергопотребления",
+            "Не удалось проанализировать энергопотребление конфигурации"
+        );
+    }
+}
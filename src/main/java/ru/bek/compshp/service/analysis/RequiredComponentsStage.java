@@ -0,0 +1,48 @@
+package ru.bek.compshp.service.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.List;
+
+/**
+ * Проверка наличия обязательных компонентов
+ */
+@Component
+@Order(1)
+public class RequiredComponentsStage implements AnalysisStage {
+
+    @Override
+    public String getName() {
+        return "проверке обязательных компонентов";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        for (ComponentType requiredType : ComponentType.values()) {
+            if (requiredType.isRequired() && !index.contains(requiredType)) {
+                issues.add(new CompatibilityIssue(
+                    IssueType.CRITICAL_ERROR,
+                    IssueCategory.MISSING_COMPONENT,
+                    "Отсутствует обязательный компонент",
+                    "Отсутствует обязательный компонент: " + requiredType.getDisplayName(),
+                    null, null
+                ));
+            }
+        }
+    }
+
+    @Override
+    public CompatibilityIssue getFailureIssue() {
+        return new CompatibilityIssue(
+            IssueType.WARNING,
+            IssueCategory.MISSING_COMPONENT,
+            "Ошибка проверки обязательных компонентов",
+            "Не удалось проверить наличие всех обязательных компонентов"
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package ru.bek.compshp.service.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.bek.compshp.dto.CompatibilityIssue;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueCategory;
+import ru.bek.compshp.dto.CompatibilityIssue.IssueType;
+import ru.bek.compshp.model.ParsedSpecs.SpecValue;
+import ru.bek.compshp.model.Product;
+import ru.bek.compshp.model.enums.ComponentType;
+
+import java.util.List;
+
+/**
+ * Анализ тепловыделения: TDP процессора против возможностей кулера
+ */
+@Component
+@Order(5)
+public class ThermalDesignStage implements AnalysisStage {
+
+    @Override
+    public String getName() {
+        return "анализе тепловыделения";
+    }
+
+    @Override
+    public void analyze(ComponentIndex index, List<CompatibilityIssue> issues) {
+        Product cpu = index.first(ComponentType.CPU);
+        Product cooler = index.first(ComponentType.COOLER);
+
+        if (cpu == null || cooler == null) {
+            return;
+        }
+
+        SpecValue cpuTdpSpec = cpu.getParsedSpecs().get("tdp");
+        SpecValue coolerTdpSpec = cooler.getParsedSpecs().get("max_tdp");
+
+        // Отсутствующие и нечисловые значения игнорируем
+        if (!cpuTdpSpec.isInteger() || !coolerTdpSpec.isInteger()) {
+            return;
+        }
+
+        int cpuTdp = cpuTdpSpec.getIntValue();
+        int coolerTdp = coolerTdpSpec.getIntValue();
+
+        if (cpuTdp > coolerTdp) {
+            issues.add(new CompatibilityIssue(
+                IssueType.CRITICAL_ERROR,
+                IssueCategory.THERMAL,
+                "Недостаточное охлаждение",
+                String.format("Кулер не справится с охлаждением CPU (TDP %dВт > %dВт)",
+                        cpuTdp, coolerTdp),
+                cpu.getTitle(),
+                cooler.getTitle()
+            ));
+        } else if (cpuTdp > coolerTdp * 0.8) {
+            issues.add(new CompatibilityIssue(
+                IssueType.WARNING,
+                IssueCategory.THERMAL,
+                "Недостаточный запас охлаждения",
+                "Рекомендуется кулер с запасом по TDP для стабильной работы"
+            ));
+        }
+    }
+
+    @Override
+    public CompatibilityIssue getFailureIssue() {
+        return new CompatibilityIssue(
+            IssueType.WARNING,
+            IssueCategory.THERMAL,
+            "Ошибка анализа охлаждения",
+            "Не удалось проанализировать систему охлаждения"
+        );
+    }
+}
@@ -0,0 +1,68 @@
+package ru.bek.compshp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор постраничной выборки по ключу (keyset pagination).
+ * Хранит значение поля сортировки и ID последней строки страницы;
+ * клиенту передается как непрозрачная строка в Base64 (URL-safe).
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final String sortValue;
+    private final Long id;
+
+    private KeysetCursor(String sortValue, Long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * Кодирует курсор для последней строки страницы
+     * @param sortValue значение поля сортировки
+     * @param id ID строки
+     * @return строка курсора
+     */
+    public static String encode(Object sortValue, Long id) {
+        String raw = sortValue + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента
+     * @param cursor строка курсора
+     * @return курсор или null, если строка пустая (первая страница)
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+        int separator = raw.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+        try {
+            return new KeysetCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
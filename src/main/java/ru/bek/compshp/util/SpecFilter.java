@@ -0,0 +1,161 @@
+package ru.bek.compshp.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Условие на характеристику товара.
+ * Поддерживаются равенство (key=value), сравнение с числом (key>=number, key<=number,
+ * key>number, key<number) и принадлежность списку (key IN (a, b, c)).
+ */
+public final class SpecFilter {
+
+    /**
+     * Допустимый ключ характеристики; ключ подставляется в выражение индекса как литерал
+     */
+    private static final Pattern KEY = Pattern.compile("[A-Za-z0-9_]{1,64}");
+    private static final Pattern COMPARISON = Pattern.compile("^\\s*([A-Za-z0-9_]+)\\s*(>=|<=|=|>|<)\\s*(.+?)\\s*$");
+    private static final Pattern IN_LIST = Pattern.compile("^\\s*([A-Za-z0-9_]+)\\s+(?i:IN)\\s*\\((.*)\\)\\s*$");
+
+    /**
+     * Вид условия
+     */
+    public enum Operator {
+        EQ("="),
+        GTE(">="),
+        LTE("<="),
+        GT(">"),
+        LT("<"),
+        IN("IN");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * Условие сравнивает числовое значение характеристики
+         */
+        public boolean isNumeric() {
+            return this == GTE || this == LTE || this == GT || this == LT;
+        }
+    }
+
+    private final String key;
+    private final Operator operator;
+    private final List<String> values;
+    private final BigDecimal number;
+
+    private SpecFilter(String key, Operator operator, List<String> values, BigDecimal number) {
+        this.key = key;
+        this.operator = operator;
+        this.values = values;
+        this.number = number;
+    }
+
+    public static SpecFilter eq(String key, String value) {
+        return new SpecFilter(checkKey(key), Operator.EQ, List.of(value), null);
+    }
+
+    public static SpecFilter in(String key, List<String> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Пустой список значений для характеристики " + key);
+        }
+        return new SpecFilter(checkKey(key), Operator.IN, List.copyOf(values), null);
+    }
+
+    public static SpecFilter compare(String key, Operator operator, BigDecimal number) {
+        if (!operator.isNumeric()) {
+            throw new IllegalArgumentException("Оператор " + operator.getSymbol() + " не является числовым сравнением");
+        }
+        return new SpecFilter(checkKey(key), operator, List.of(), number);
+    }
+
+    /**
+     * Разбирает условие из строки: "socket=AM5", "cores>=8", "memory_type IN (DDR4, DDR5)"
+     * @param expression строка условия
+     * @return условие
+     * @throws IllegalArgumentException если строка не является условием
+     */
+    public static SpecFilter parse(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Пустое условие на характеристику");
+        }
+        Matcher in = IN_LIST.matcher(expression);
+        if (in.matches()) {
+            List<String> values = new ArrayList<>();
+            for (String value : in.group(2).split(",")) {
+                String trimmed = value.trim();
+                if (!trimmed.isEmpty()) {
+                    values.add(trimmed);
+                }
+            }
+            return in(in.group(1), values);
+        }
+        Matcher comparison = COMPARISON.matcher(expression);
+        if (!comparison.matches()) {
+            throw new IllegalArgumentException("Некорректное условие на характеристику: " + expression);
+        }
+        String key = comparison.group(1);
+        String value = comparison.group(3);
+        return switch (comparison.group(2)) {
+            case "=" -> eq(key, value);
+            case ">=" -> compare(key, Operator.GTE, parseNumber(expression, value));
+            case "<=" -> compare(key, Operator.LTE, parseNumber(expression, value));
+            case ">" -> compare(key, Operator.GT, parseNumber(expression, value));
+            default -> compare(key, Operator.LT, parseNumber(expression, value));
+        };
+    }
+
+    private static BigDecimal parseNumber(String expression, String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ожидалось число в условии: " + expression);
+        }
+    }
+
+    private static String checkKey(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Некорректный ключ характеристики: " + key);
+        }
+        return key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Значения для EQ (одно) и IN
+     */
+    public List<String> getValues() {
+        return values;
+    }
+
+    /**
+     * Число для числовых сравнений
+     */
+    public BigDecimal getNumber() {
+        return number;
+    }
+
+    @Override
+    public String toString() {
+        return operator == Operator.IN
+                ? key + " IN (" + String.join(", ", values) + ")"
+                : key + operator.getSymbol() + (operator.isNumeric() ? number.toPlainString() : values.get(0));
+    }
+}
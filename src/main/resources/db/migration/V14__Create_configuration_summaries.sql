@@ -0,0 +1,92 @@
+-- Денормализованные сводки конфигураций для списков (публичная галерея, подборки по цене и производительности)
+-- Сводка обновляется приложением при изменении конфигурации и ее компонентов
+
+CREATE TABLE configuration_summaries (
+    config_id BIGINT PRIMARY KEY REFERENCES pc_configurations(id) ON DELETE CASCADE,
+    user_id BIGINT,
+    name VARCHAR(255) NOT NULL,
+    category VARCHAR(50),
+    is_public BOOLEAN NOT NULL DEFAULT FALSE,
+    is_compatible BOOLEAN NOT NULL DEFAULT FALSE,
+    total_price DECIMAL(15,2) NOT NULL DEFAULT 0,
+    total_performance DOUBLE PRECISION NOT NULL DEFAULT 0,
+    power_draw INTEGER NOT NULL DEFAULT 0,
+    -- Битовая маска типов компонентов: бит с номером ComponentType.ordinal()
+    component_types INTEGER NOT NULL DEFAULT 0,
+    component_count INTEGER NOT NULL DEFAULT 0,
+    cpu_product_id BIGINT,
+    cpu_name VARCHAR(100),
+    gpu_product_id BIGINT,
+    gpu_name VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Индексы для постраничной выборки по ключу (keyset pagination)
+CREATE INDEX idx_config_summaries_public_created ON configuration_summaries(created_at DESC, config_id DESC) WHERE is_public;
+CREATE INDEX idx_config_summaries_price ON configuration_summaries(total_price, config_id);
+CREATE INDEX idx_config_summaries_performance ON configuration_summaries(total_performance DESC, config_id DESC);
+CREATE INDEX idx_config_summaries_cpu ON configuration_summaries(cpu_product_id);
+CREATE INDEX idx_config_summaries_gpu ON configuration_summaries(gpu_product_id);
+
+-- Заполняем сводки для существующих конфигураций
+WITH component_stats AS (
+    SELECT
+        cc.config_id,
+        p.id AS product_id,
+        p.title,
+        p.component_type,
+        CASE p.component_type
+            WHEN 'CPU' THEN 0 WHEN 'GPU' THEN 1 WHEN 'MB' THEN 2 WHEN 'RAM' THEN 3
+            WHEN 'PSU' THEN 4 WHEN 'CASE' THEN 5 WHEN 'COOLER' THEN 6 WHEN 'STORAGE' THEN 7
+            WHEN 'MONITOR' THEN 8 WHEN 'KEYBOARD' THEN 9 WHEN 'MOUSE' THEN 10 WHEN 'HEADSET' THEN 11
+            WHEN 'SPEAKERS' THEN 12 WHEN 'WEBCAM' THEN 13 WHEN 'PRINTER' THEN 14 WHEN 'SCANNER' THEN 15
+            WHEN 'GAMEPAD' THEN 16 WHEN 'NETWORK' THEN 17 WHEN 'HEADPHONES' THEN 18 WHEN 'MOUSEPAD' THEN 19
+            WHEN 'MICROPHONE' THEN 20
+        END AS type_bit,
+        COALESCE(NULLIF(p.specs->>'power_consumption', ''), NULLIF(p.specs->>'tdp', ''), NULLIF(p.specs->>'power', '')) AS power_spec
+    FROM config_components cc
+    JOIN products p ON p.id = cc.product_id
+),
+component_power AS (
+    SELECT
+        cs.*,
+        CASE
+            WHEN cs.component_type = 'PSU' THEN 0
+            WHEN cs.power_spec IS NULL AND cs.component_type IS NULL THEN 0
+            -- Базовое потребление для компонентов без указанной мощности (как в PowerCalculator)
+            WHEN cs.power_spec IS NULL THEN
+                CASE cs.component_type
+                    WHEN 'CPU' THEN 100 WHEN 'GPU' THEN 200 WHEN 'RAM' THEN 5 WHEN 'MB' THEN 30
+                    WHEN 'STORAGE' THEN 10 WHEN 'COOLER' THEN 5 WHEN 'CASE' THEN 0
+                    ELSE 10
+                END
+            WHEN cs.power_spec ~ '^[+-]?[0-9]{1,9}$' THEN cs.power_spec::INTEGER
+            ELSE 0
+        END AS power
+    FROM component_stats cs
+)
+INSERT INTO configuration_summaries (
+    config_id, user_id, name, category, is_public, is_compatible, total_price, total_performance,
+    power_draw, component_types, component_count,
+    cpu_product_id, cpu_name, gpu_product_id, gpu_name, created_at, updated_at
+)
+SELECT
+    c.id,
+    c.user_id,
+    c.name,
+    c.category,
+    COALESCE(c.is_public, FALSE),
+    COALESCE(c.is_compatible, FALSE),
+    COALESCE(c.total_price, 0),
+    COALESCE(c.total_performance, 0),
+    COALESCE((SELECT SUM(cp.power) FROM component_power cp WHERE cp.config_id = c.id), 0),
+    COALESCE((SELECT BIT_OR(1 << cp.type_bit) FROM component_power cp WHERE cp.config_id = c.id AND cp.type_bit IS NOT NULL), 0),
+    (SELECT COUNT(*) FROM component_power cp WHERE cp.config_id = c.id),
+    (SELECT MIN(cp.product_id) FROM component_power cp WHERE cp.config_id = c.id AND cp.component_type = 'CPU'),
+    (SELECT MIN(cp.title) FROM component_power cp WHERE cp.config_id = c.id AND cp.component_type = 'CPU'),
+    (SELECT MIN(cp.product_id) FROM component_power cp WHERE cp.config_id = c.id AND cp.component_type = 'GPU'),
+    (SELECT MIN(cp.title) FROM component_power cp WHERE cp.config_id = c.id AND cp.component_type = 'GPU'),
+    COALESCE(c.created_at, CURRENT_TIMESTAMP),
+    COALESCE(c.updated_at, CURRENT_TIMESTAMP)
+FROM pc_configurations c;
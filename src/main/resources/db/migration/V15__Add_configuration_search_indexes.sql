@@ -0,0 +1,18 @@
+-- Индексы для поиска конфигураций с постраничной выборкой по ключу
+-- Каждый индекс заканчивается config_id, чтобы порядок внутри равных значений был стабильным
+
+-- Конфигурации пользователя, новые первыми
+CREATE INDEX idx_config_summaries_user_created ON configuration_summaries(user_id, created_at DESC, config_id DESC);
+
+-- Подборки по категории
+CREATE INDEX idx_config_summaries_category_created ON configuration_summaries(category, created_at DESC, config_id DESC);
+
+-- Публичные конфигурации по цене и производительности
+CREATE INDEX idx_config_summaries_public_price ON configuration_summaries(total_price, config_id) WHERE is_public;
+CREATE INDEX idx_config_summaries_public_performance ON configuration_summaries(total_performance DESC, config_id DESC) WHERE is_public;
+
+-- Все конфигурации, новые первыми (поиск без фильтров)
+CREATE INDEX idx_config_summaries_created ON configuration_summaries(created_at DESC, config_id DESC);
+
+-- Фильтр "конфигурация содержит товар"
+CREATE INDEX idx_config_components_product_config ON config_components(product_id, config_id);
@@ -0,0 +1,15 @@
+-- Битовая маска типов компонентов конфигурации: бит с номером ComponentType.ordinal()
+ALTER TABLE pc_configurations ADD COLUMN component_types INTEGER NOT NULL DEFAULT 0;
+
+-- Заполняем маску из сводок (V14), где она уже посчитана
+UPDATE pc_configurations c
+SET component_types = s.component_types
+FROM configuration_summaries s
+WHERE s.config_id = c.id;
+
+-- Полная конфигурация содержит все обязательные типы: CPU(0), MB(2), RAM(3), PSU(4), CASE(5), STORAGE(7).
+-- 189 = 1 + 4 + 8 + 16 + 32 + 128; должно совпадать с ComponentType.requiredMask()
+ALTER TABLE pc_configurations
+    ADD COLUMN is_complete BOOLEAN GENERATED ALWAYS AS ((component_types & 189) = 189) STORED;
+
+CREATE INDEX idx_pc_configurations_complete ON pc_configurations(is_complete);
@@ -0,0 +1,25 @@
+-- Бюджет мощности конфигурации: потребление компонентов (без БП) и мощность БП
+ALTER TABLE pc_configurations ADD COLUMN power_draw INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE pc_configurations ADD COLUMN psu_wattage INTEGER;
+
+-- Потребление уже посчитано в сводках (V14)
+UPDATE pc_configurations c
+SET power_draw = s.power_draw
+FROM configuration_summaries s
+WHERE s.config_id = c.id;
+
+-- Мощность БП: поле power, затем wattage (как в PowerCalculator.getPsuWattage)
+UPDATE pc_configurations c
+SET psu_wattage = psu.wattage
+FROM (
+    SELECT DISTINCT ON (cc.config_id)
+        cc.config_id,
+        COALESCE(NULLIF(p.specs->>'power', ''), NULLIF(p.specs->>'wattage', ''))::INTEGER AS wattage
+    FROM config_components cc
+    JOIN products p ON p.id = cc.product_id
+    WHERE p.component_type = 'PSU'
+      AND COALESCE(NULLIF(p.specs->>'power', ''), NULLIF(p.specs->>'wattage', '')) ~ '^[+-]?[0-9]{1,9}$'
+    ORDER BY cc.config_id, p.id
+) psu
+WHERE psu.config_id = c.id
+  AND psu.wattage > 0;
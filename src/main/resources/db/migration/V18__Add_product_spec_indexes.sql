@@ -0,0 +1,22 @@
+-- Индексы для запросов по характеристикам товаров
+
+-- Равенство и списки значений проверяются вхождением (specs @> '{"key": "value"}');
+-- jsonb_path_ops компактнее и быстрее для @>, а проверка наличия ключа (?) больше не используется
+DROP INDEX IF EXISTS idx_products_specs;
+CREATE INDEX idx_products_specs_path ON products USING GIN (specs jsonb_path_ops);
+
+-- Числовое значение характеристики или NULL, если значение не является числом
+-- (CAST напрямую падает на значениях вроде "16GB")
+CREATE OR REPLACE FUNCTION spec_number(specs JSONB, spec_key TEXT) RETURNS NUMERIC
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT CASE WHEN specs->>spec_key ~ '^[+-]?[0-9]+(\.[0-9]+)?$' THEN (specs->>spec_key)::NUMERIC END
+$$;
+
+-- Индексы по выражению для ключей, которые чаще всего сравниваются с числом
+CREATE INDEX idx_products_spec_performance ON products (spec_number(specs, 'performance'));
+CREATE INDEX idx_products_spec_power ON products (spec_number(specs, 'power'));
+CREATE INDEX idx_products_spec_cores ON products (spec_number(specs, 'cores'));
+CREATE INDEX idx_products_spec_frequency ON products (spec_number(specs, 'frequency'));
+CREATE INDEX idx_products_spec_capacity ON products (spec_number(specs, 'capacity'));
+CREATE INDEX idx_products_spec_vram_size ON products (spec_number(specs, 'vram_size'));
+CREATE INDEX idx_products_spec_discount ON products (spec_number(specs, 'discount'));